@@ -0,0 +1,12 @@
+package org.example.shopyapi;
+
+import java.security.Principal;
+
+// Principal of a request authenticated with a JWT, built from the token claims alone.
+// getName() is the email, so code reading Authentication.getName() keeps working.
+public record AuthenticatedUser(Long userId, String email) implements Principal {
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,5 +1,8 @@
 package org.example.shopyapi;
 
+import jakarta.servlet.DispatcherType;
+import org.example.shopyapi.dto.PageDto;
+import org.example.shopyapi.service.IdempotencyService;
 import org.example.shopyapi.service.JwtService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -33,6 +36,12 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/auth/**").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                // Scraped by Prometheus, which has no user token. Actuator is only served on the
+                // internal management.server.port, which this chain covers as well.
+                .requestMatchers("/actuator/prometheus").permitAll()
+                // Completions of async requests such as the order events stream were authorized on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -45,6 +54,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(List.of("http://localhost:3000"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of(PageDto.NEXT_CURSOR_HEADER, RequestIdFilter.HEADER, IdempotencyService.REPLAYED_HEADER));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -6,7 +6,10 @@ import org.example.shopyapi.repository.ProductRepository;
 import org.example.shopyapi.repository.UserRepository;
 import org.example.shopyapi.service.InventoryService;
 import org.example.shopyapi.service.OrderService;
+import org.example.shopyapi.service.ProductIdAllocator;
 import org.example.shopyapi.service.RoutingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationListener;
@@ -18,23 +21,28 @@ import java.util.List;
 
 @Component
 public class DataInitializer implements ApplicationListener<ApplicationReadyEvent> {
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
 
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
     private final InventoryService inventoryService;
     private final OrderService orderService;
     private final UserRepository userRepository;
+    private final RoutingService routingService;
+    private final ProductIdAllocator productIdAllocator;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     @Value("${app.initialize.data:false}")
     private boolean shouldInitializeData;
 
-    public DataInitializer(ProductRepository productRepository, OrderRepository orderRepository, InventoryService inventoryService, OrderService orderService, UserRepository userRepository) {
+    public DataInitializer(ProductRepository productRepository, OrderRepository orderRepository, InventoryService inventoryService, OrderService orderService, UserRepository userRepository, RoutingService routingService, ProductIdAllocator productIdAllocator) {
         this.productRepository = productRepository;
         this.orderRepository = orderRepository;
         this.inventoryService = inventoryService;
         this.orderService = orderService;
         this.userRepository = userRepository;
+        this.routingService = routingService;
+        this.productIdAllocator = productIdAllocator;
     }
 
     @Override
@@ -47,9 +55,9 @@ public class DataInitializer implements ApplicationListener<ApplicationReadyEven
     public void initializeData() {
         if (productRepository.count() == 0) {
             initializeUsersWithProductsAndOrders();
-            System.out.println("✅ Database initialized with user-specific data!");
+            log.info("Database initialized with user-specific data");
         } else {
-            System.out.println("ℹ️ Database already contains data, skip init.");
+            log.info("Database already contains data, skip init");
         }
     }
 
@@ -63,7 +71,7 @@ public class DataInitializer implements ApplicationListener<ApplicationReadyEven
             createUser("Eva Brown", "eva@example.com", "5678901234", "654 Cedar Ln", password)
         );
         userRepository.saveAll(users);
-        System.out.println("👤 Created 5 users");
+        log.info("Created 5 users");
 
         // Create user-specific products and orders
         createUserProductsAndOrders(users.get(0), "Alice", Arrays.asList(
@@ -112,14 +120,14 @@ public class DataInitializer implements ApplicationListener<ApplicationReadyEven
     private void createUserProductsAndOrders(User user, String userName, List<Product> products) {
         for (int i = 0; i < products.size(); i++) {
             Product product = products.get(i);
-            product.setId((long) (i + 1));
+            product.setId(productIdAllocator.nextId(user.getId()));
             product.setUser(user);
             productRepository.save(product);
         }
-        System.out.println("📦 Created " + products.size() + " products for " + userName + " with IDs 1-" + products.size());
+        log.info("Created {} products for {} with IDs 1-{}", products.size(), userName, products.size());
 
         if (products.isEmpty()) {
-            System.out.println("⚠️ No products for " + userName + ", skipping order creation");
+            log.warn("No products for {}, skipping order creation", userName);
             return;
         }
 
@@ -145,7 +153,7 @@ public class DataInitializer implements ApplicationListener<ApplicationReadyEven
         try {
             for (OrderItem item : items) {
                 if (!inventoryService.findByNameAndUser(item.getProductName(), user).isPresent()) {
-                    System.out.println("⚠️ Product '" + item.getProductName() + "' not found for user " + user.getEmail() + ", skipping order creation");
+                    log.warn("Product '{}' not found for user {}, skipping order creation", item.getProductName(), user.getEmail());
                     return;
                 }
             }
@@ -163,7 +171,6 @@ public class DataInitializer implements ApplicationListener<ApplicationReadyEven
                 .distinct()
                 .toList();
             
-            RoutingService routingService = new RoutingService();
             List<Point> route = routingService.calculateOptimalRoute(locationsToVisit);
             order.setRoute(route);
             
@@ -171,13 +178,13 @@ public class DataInitializer implements ApplicationListener<ApplicationReadyEven
             
             items.forEach(item -> {
                 inventoryService.findByNameAndUser(item.getProductName(), user)
-                    .ifPresent(product -> inventoryService.reduceStock(product.getId(), item.getQuantity()));
+                    .ifPresent(product -> inventoryService.reduceStock(product.getId(), user.getId(), item.getQuantity()));
             });
             
-            System.out.println("✅ " + description + " for " + user.getEmail() + " - Order ID: " + order.getId());
+            log.info("{} for {} - Order ID: {}", description, user.getEmail(), order.getId());
             
         } catch (Exception e) {
-            System.out.println("❌ Failed to create " + description + " for " + user.getEmail() + ": " + e.getMessage());
+            log.error("Failed to create {} for {}", description, user.getEmail(), e);
         }
     }
 
@@ -190,10 +197,10 @@ public class DataInitializer implements ApplicationListener<ApplicationReadyEven
             order.setRoute(List.of());
             
             orderRepository.save(order);
-            System.out.println("❌ " + description + " for " + user.getEmail() + " - Order ID: " + order.getId());
+            log.info("{} for {} - Order ID: {}", description, user.getEmail(), order.getId());
             
         } catch (Exception e) {
-            System.out.println("❌ Failed to create " + description + " for " + user.getEmail() + ": " + e.getMessage());
+            log.error("Failed to create {} for {}", description, user.getEmail(), e);
         }
     }
 } 
\ No newline at end of file
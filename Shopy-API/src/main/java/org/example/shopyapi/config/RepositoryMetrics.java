@@ -0,0 +1,50 @@
+package org.example.shopyapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.AutoTimer;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.MetricsRepositoryMethodInvocationListener;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocationResult.State;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Times every repository call as spring.data.repository.invocations, tagged with the repository,
+// the method and the state. Replaces Spring Boot's listener, which builds the tags of every call anew;
+// here the timers of a method are created on its first call and then only looked up by the Method.
+@Component
+public class RepositoryMetrics extends MetricsRepositoryMethodInvocationListener {
+    private static final String METRIC_NAME = "spring.data.repository.invocations";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<Method, Timer[]> timers = new ConcurrentHashMap<>();
+
+    // The registry is resolved on the first call, repositories are created before it is ready
+    public RepositoryMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        super(meterRegistry::getObject, new DefaultRepositoryTagsProvider(), METRIC_NAME, AutoTimer.DISABLED);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        State state = invocation.getResult() != null ? invocation.getResult().getState() : State.ERROR;
+        Timer[] methodTimers = timers.computeIfAbsent(invocation.getMethod(), method -> new Timer[State.values().length]);
+        Timer timer = methodTimers[state.ordinal()];
+        if (timer == null) {
+            // Racing first calls register the same timer, the registry hands out one instance per id
+            timer = Timer.builder(METRIC_NAME)
+                    .description("Duration of repository invocations")
+                    .tag("repository", invocation.getRepositoryInterface().getSimpleName())
+                    .tag("method", invocation.getMethod().getName())
+                    .tag("state", state.name())
+                    .register(meterRegistry.getObject());
+            methodTimers[state.ordinal()] = timer;
+        }
+        timer.record(invocation.getDuration(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.shopyapi.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Logs one in sample-every SQL statements, where spring.jpa.show-sql wrote every statement to stdout.
+// Statements slower than hibernate.log_slow_query are logged by Hibernate itself (org.hibernate.SQL_SLOW).
+@Component
+public class SampledSqlLogger implements StatementInspector, HibernatePropertiesCustomizer {
+    private static final Logger log = LoggerFactory.getLogger("org.example.shopyapi.sql");
+
+    private final int sampleEvery;
+
+    // 0 turns sampling off
+    public SampledSqlLogger(@Value("${app.logging.sql.sample-every:1000}") int sampleEvery) {
+        if (sampleEvery < 0) {
+            throw new IllegalArgumentException("app.logging.sql.sample-every cannot be negative");
+        }
+        this.sampleEvery = sampleEvery;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    // Runs for every statement: one that is not sampled costs a random number and nothing else
+    @Override
+    public String inspect(String sql) {
+        if (sampleEvery > 0 && ThreadLocalRandom.current().nextInt(sampleEvery) == 0 && log.isInfoEnabled()) {
+            log.info("Sampled SQL: {}", sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.shopyapi.config;
+
+import org.example.shopyapi.routing.GridPathfinder;
+import org.example.shopyapi.routing.WarehouseLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+// Loads the warehouse floor plan once at startup.
+// Without app.warehouse.layout the routing falls back to an empty grid with Manhattan distances.
+@Configuration
+@ConditionalOnProperty(name = "app.warehouse.layout")
+public class WarehouseLayoutConfig {
+    private static final Logger log = LoggerFactory.getLogger(WarehouseLayoutConfig.class);
+
+    @Bean
+    public WarehouseLayout warehouseLayout(@Value("${app.warehouse.layout}") Resource layoutResource) throws IOException {
+        try (InputStreamReader reader = new InputStreamReader(layoutResource.getInputStream(), StandardCharsets.UTF_8)) {
+            WarehouseLayout layout = WarehouseLayout.parse(reader);
+            log.info("Loaded warehouse layout {}x{} from {}", layout.width(), layout.height(), layoutResource.getDescription());
+            return layout;
+        }
+    }
+
+    @Bean
+    public GridPathfinder gridPathfinder(WarehouseLayout warehouseLayout,
+                                         @Value("${app.warehouse.path-cache-size:100000}") int maxCachedLegs) {
+        return new GridPathfinder(warehouseLayout, maxCachedLegs);
+    }
+}
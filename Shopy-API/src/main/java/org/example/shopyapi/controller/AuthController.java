@@ -1,5 +1,6 @@
 package org.example.shopyapi.controller;
 
+import org.example.shopyapi.AuthenticatedUser;
 import org.example.shopyapi.dto.UserRegisterDto;
 import org.example.shopyapi.dto.UserLoginDto;
 import org.example.shopyapi.dto.UserResponseDto;
@@ -7,8 +8,10 @@ import org.example.shopyapi.dto.JwtResponseDto;
 import org.example.shopyapi.model.User;
 import org.example.shopyapi.repository.UserRepository;
 import org.example.shopyapi.service.JwtService;
+import org.example.shopyapi.service.TokenRevocationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
@@ -23,6 +26,9 @@ public class AuthController {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     @PostMapping("/register")
@@ -61,4 +67,14 @@ public class AuthController {
         UserResponseDto userDto = new UserResponseDto(user.getId(), user.getName(), user.getEmail(), user.getTelephone(), user.getAddress());
         return ResponseEntity.ok(new JwtResponseDto(token, userDto));
     }
-} 
\ No newline at end of file
+
+    // Ends every token issued to the user so far, on all devices
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@AuthenticationPrincipal AuthenticatedUser user) {
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+        tokenRevocationService.revokeTokens(user.userId());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,59 +1,201 @@
 package org.example.shopyapi.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.example.shopyapi.AuthenticatedUser;
+import org.example.shopyapi.dto.OrderListRequestDto;
 import org.example.shopyapi.dto.OrderStatusDto;
+import org.example.shopyapi.dto.PageDto;
 import org.example.shopyapi.dto.PlaceOrderRequestDto;
+import org.example.shopyapi.model.Order;
 import org.example.shopyapi.model.OrderResult;
+import org.example.shopyapi.model.OrderStatus;
+import org.example.shopyapi.service.AsyncOrderService;
+import org.example.shopyapi.service.IdempotencyService;
+import org.example.shopyapi.service.OrderBatchService;
+import org.example.shopyapi.service.OrderListingService;
 import org.example.shopyapi.service.OrderService;
+import org.example.shopyapi.service.OrderStatusNotifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.util.Collection;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
     private final OrderService orderService;
+    private final OrderBatchService orderBatchService;
+    private final OrderListingService orderListingService;
+    private final AsyncOrderService asyncOrderService;
+    private final OrderStatusNotifier orderStatusNotifier;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           OrderBatchService orderBatchService,
+                           OrderListingService orderListingService,
+                           AsyncOrderService asyncOrderService,
+                           OrderStatusNotifier orderStatusNotifier,
+                           IdempotencyService idempotencyService,
+                           ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.orderBatchService = orderBatchService;
+        this.orderListingService = orderListingService;
+        this.asyncOrderService = asyncOrderService;
+        this.orderStatusNotifier = orderStatusNotifier;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
     }
 
+    // With an Idempotency-Key header a retried request returns the result of the first one
+    // instead of placing the order again
     @PostMapping
-    public ResponseEntity<Object> placeOrder(@Valid @RequestBody PlaceOrderRequestDto requestDto) {
+    public ResponseEntity<Object> placeOrder(@Valid @RequestBody PlaceOrderRequestDto requestDto,
+                                             @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                             @AuthenticationPrincipal AuthenticatedUser user) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userEmail = authentication.getName();
-        
-        OrderResult result = orderService.processOrder(requestDto, userEmail);
-        return ResponseEntity.ok(new java.util.LinkedHashMap<>() {{
+
+        return placeIdempotently(user, idempotencyKey, "POST /api/orders", requestDto,
+                () -> orderService.processOrder(requestDto, userEmail));
+    }
+
+    // Waits for the current batching window and picks the order in a tour shared with nearby orders
+    @PostMapping("/batch")
+    public ResponseEntity<Object> placeBatchedOrder(@Valid @RequestBody PlaceOrderRequestDto requestDto,
+                                                    @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                    @AuthenticationPrincipal AuthenticatedUser user) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userEmail = authentication.getName();
+
+        return placeIdempotently(user, idempotencyKey, "POST /api/orders/batch", requestDto,
+                () -> orderBatchService.placeOrder(requestDto, userEmail));
+    }
+
+    private ResponseEntity<Object> placeIdempotently(AuthenticatedUser user, String idempotencyKey, String endpoint,
+                                                     PlaceOrderRequestDto requestDto, Supplier<OrderResult> placeOrder) {
+        if (idempotencyKey != null && !IdempotencyService.isValidKey(idempotencyKey)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", IdempotencyService.HEADER + " must be 1 to 255 printable ASCII characters"));
+        }
+        IdempotencyService.Execution<OrderResult> execution;
+        try {
+            execution = idempotencyService.execute(user.userId(), idempotencyKey, endpoint, requestDto, placeOrder);
+        } catch (IdempotencyService.KeyReusedException e) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("error", e.getMessage()));
+        }
+
+        OrderResult result = execution.result();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (execution.replayed()) {
+            response.header(IdempotencyService.REPLAYED_HEADER, "true");
+        }
+        return response.body(new java.util.LinkedHashMap<>() {{
             put("id", result.orderId());
             put("status", result.status());
             put("message", result.message());
         }});
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<OrderStatusDto> getOrderStatus(@PathVariable Long id) {
+    // Accepts the order as PENDING and returns at once, the result is read from GET /api/orders/{id}
+    // or pushed by GET /api/orders/{id}/events. Answers 503 when too many orders are waiting.
+    @PostMapping("/async")
+    public ResponseEntity<Object> placeAsyncOrder(@Valid @RequestBody PlaceOrderRequestDto requestDto) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userEmail = authentication.getName();
-        
-        return orderService.findByIdAndUser(id, userEmail)
-                .map(order -> new OrderStatusDto(order.getId(), order.getStatus()))
+
+        Order order;
+        try {
+            order = asyncOrderService.submit(requestDto, userEmail);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage()));
+        }
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/orders/{id}").buildAndExpand(order.getId()).toUri();
+        return ResponseEntity.accepted().location(location).body(new java.util.LinkedHashMap<>() {{
+            put("id", order.getId());
+            put("status", order.getStatus());
+            put("message", "Your order was accepted and is being processed.");
+        }});
+    }
+
+    // Sends one "status" event once the order is no longer PENDING, at once if it already is
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> orderEvents(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser user) {
+        if (orderService.findByIdAndUser(id, user.userId()).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        SseEmitter emitter = orderStatusNotifier.subscribe(id);
+        // Checked again after subscribing, so a completion in between is not missed
+        Optional<OrderStatusDto> current = orderService.findByIdAndUser(id, user.userId()).map(OrderStatusDto::fromEntity);
+        if (current.isPresent() && current.get().status() != OrderStatus.PENDING) {
+            orderStatusNotifier.publish(current.get());
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<OrderStatusDto> getOrderStatus(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser user) {
+        return orderService.findByIdAndUser(id, user.userId())
+                .map(OrderStatusDto::fromEntity)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // One page of orders, newest first, the X-Next-Cursor header is set when there are more
     @GetMapping
-    public ResponseEntity<Collection<OrderStatusDto>> listOrders() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String userEmail = authentication.getName();
-        
-        var orders = orderService.getOrdersByUser(userEmail).stream()
-                .map(OrderStatusDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> listOrders(OrderListRequestDto request, @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            PageDto<OrderStatusDto> page = orderListingService.listPage(user.userId(), request);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(PageDto.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // All matching orders as newline-delimited JSON, written while they are read from the database
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamOrders(OrderListRequestDto request, @AuthenticationPrincipal AuthenticatedUser user,
+                             HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        try {
+            orderListingService.stream(user.userId(), request, order -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(order));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            // Invalid parameters are rejected before the first row is written
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(out, Map.of("error", e.getMessage()));
+        }
     }
 }
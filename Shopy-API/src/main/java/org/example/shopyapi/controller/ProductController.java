@@ -1,27 +1,53 @@
 package org.example.shopyapi.controller;
 
+import org.example.shopyapi.AuthenticatedUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.example.shopyapi.dto.CreateProductRequestDto;
+import org.example.shopyapi.dto.PageDto;
 import org.example.shopyapi.dto.ProductDto;
+import org.example.shopyapi.dto.ProductListRequestDto;
 import org.example.shopyapi.dto.UpdateProductRequestDto;
 import org.example.shopyapi.model.Product;
+import org.example.shopyapi.service.InventoryEventService;
 import org.example.shopyapi.service.InventoryService;
+import org.example.shopyapi.service.ProductImportService;
+import org.example.shopyapi.service.ProductListingService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
     private final InventoryService inventoryService;
+    private final ProductImportService productImportService;
+    private final ProductListingService productListingService;
+    private final InventoryEventService inventoryEventService;
+    private final ObjectMapper objectMapper;
 
-    public ProductController(InventoryService inventoryService) {
+    public ProductController(InventoryService inventoryService,
+                             ProductImportService productImportService,
+                             ProductListingService productListingService,
+                             InventoryEventService inventoryEventService,
+                             ObjectMapper objectMapper) {
         this.inventoryService = inventoryService;
+        this.productImportService = productImportService;
+        this.productListingService = productListingService;
+        this.inventoryEventService = inventoryEventService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -43,43 +69,97 @@ public class ProductController {
         }
     }
 
-    @GetMapping
-    public ResponseEntity<Collection<ProductDto>> listProducts() {
+    // Streams a JSON array or a CSV file of products, see ProductImportReader for the formats
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importProductsJson(InputStream body) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userEmail = authentication.getName();
-        
-        var products = inventoryService.getProductsByUser(userEmail).stream()
-                .map(ProductDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(products);
+
+        try {
+            return ResponseEntity.ok(productImportService.importJson(body, userEmail));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> getProduct(@PathVariable Long id) {
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<?> importProductsCsv(InputStream body) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userEmail = authentication.getName();
-        
-        return inventoryService.findByIdAndUser(id, userEmail)
-                .map(product -> ResponseEntity.ok(ProductDto.fromEntity(product)))
+
+        try {
+            return ResponseEntity.ok(productImportService.importCsv(body, userEmail));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // One page of products, the X-Next-Cursor header is set when there are more
+    @GetMapping
+    public ResponseEntity<?> listProducts(ProductListRequestDto request, @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            PageDto<ProductDto> page = productListingService.listPage(user.userId(), request);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(PageDto.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // All matching products as newline-delimited JSON, written while they are read from the database
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamProducts(ProductListRequestDto request, @AuthenticationPrincipal AuthenticatedUser user,
+                               HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        try {
+            productListingService.stream(user.userId(), request, product -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(product));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            // Invalid parameters are rejected before the first row is written
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(out, Map.of("error", e.getMessage()));
+        }
+    }
+
+    // "inventory" events for every created, updated, deleted or restocked product of the user.
+    // A reconnecting client passes the id of the last event it received as Last-Event-ID header
+    // (sent by EventSource automatically) or lastEventId parameter to receive what it missed.
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter inventoryEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+                                      @RequestParam(required = false) Long lastEventId,
+                                      @AuthenticationPrincipal AuthenticatedUser user) {
+        return inventoryEventService.subscribe(user.userId(), lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductDto> getProduct(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser user) {
+        return inventoryService.findByIdAndUser(id, user.userId())
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ProductDto> updateProduct(@PathVariable Long id, @RequestBody UpdateProductRequestDto requestDto) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String userEmail = authentication.getName();
-        
-        return inventoryService.updateProduct(id, requestDto, userEmail)
+    public ResponseEntity<ProductDto> updateProduct(@PathVariable Long id, @RequestBody UpdateProductRequestDto requestDto,
+                                                    @AuthenticationPrincipal AuthenticatedUser user) {
+        return inventoryService.updateProduct(id, requestDto, user.userId())
                 .map(updatedProduct -> ResponseEntity.ok(ProductDto.fromEntity(updatedProduct)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String userEmail = authentication.getName();
-        
-        boolean isDeleted = inventoryService.deleteProduct(id, userEmail);
+    public ResponseEntity<Void> deleteProduct(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser user) {
+        boolean isDeleted = inventoryService.deleteProduct(id, user.userId());
 
         if (isDeleted) {
             return ResponseEntity.noContent().build();
@@ -1,8 +1,10 @@
 package org.example.shopyapi.controller;
 
+import org.example.shopyapi.AuthenticatedUser;
 import org.example.shopyapi.dto.RouteDto;
 import org.example.shopyapi.service.OrderService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -18,8 +20,8 @@ public class RouteController {
     }
 
     @GetMapping
-    public ResponseEntity<RouteDto> getRouteForOrder(@RequestParam Long orderId) {
-        return orderService.findById(orderId)
+    public ResponseEntity<RouteDto> getRouteForOrder(@RequestParam Long orderId, @AuthenticationPrincipal AuthenticatedUser user) {
+        return orderService.findByIdAndUser(orderId, user.userId())
                 .map(RouteDto::fromEntity)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -0,0 +1,15 @@
+package org.example.shopyapi.dto;
+
+// Data of one "inventory" server-sent event. product is the current state of the product,
+// null for DELETED and RESET. RESET tells the client to reload the product list, its
+// events could not be replayed.
+public record InventoryEventDto(Type type, Long productId, ProductDto product) {
+    // Ordered by precedence when changes to one product are coalesced
+    public enum Type {
+        STOCK_CHANGED,
+        UPDATED,
+        CREATED,
+        DELETED,
+        RESET
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.shopyapi.dto;
+
+import org.example.shopyapi.model.OrderStatus;
+
+import java.time.Instant;
+
+// Query parameters of GET /api/orders, every field is optional.
+// Orders are listed newest first; from is inclusive and to exclusive, both ISO-8601 instants.
+public record OrderListRequestDto(OrderStatus status,
+                                  Instant from,
+                                  Instant to,
+                                  String cursor,
+                                  Integer limit) {
+}
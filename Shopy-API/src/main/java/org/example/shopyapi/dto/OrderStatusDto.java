@@ -3,11 +3,14 @@ package org.example.shopyapi.dto;
 import org.example.shopyapi.model.Order;
 import org.example.shopyapi.model.OrderStatus;
 
-public record OrderStatusDto(Long id, OrderStatus status) {
+import java.time.Instant;
+
+public record OrderStatusDto(Long id, OrderStatus status, Instant createdAt) {
     public static OrderStatusDto fromEntity(Order order) {
         return new OrderStatusDto(
                 order.getId(),
-                order.getStatus()
+                order.getStatus(),
+                order.getCreatedAt()
         );
     }
 }
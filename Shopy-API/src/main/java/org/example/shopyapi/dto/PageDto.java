@@ -0,0 +1,9 @@
+package org.example.shopyapi.dto;
+
+import java.util.List;
+
+// One page of a keyset listing, nextCursor is null on the last page
+public record PageDto<T>(List<T> items, String nextCursor) {
+    // Listing endpoints return the items as the body and the cursor of the next page in this header
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+}
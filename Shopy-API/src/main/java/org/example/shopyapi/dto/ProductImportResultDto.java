@@ -0,0 +1,13 @@
+package org.example.shopyapi.dto;
+
+import java.util.List;
+
+// Outcome of a bulk product import, rows are reported in the order they were read.
+public record ProductImportResultDto(int created,
+                                     int updated,
+                                     int failed,
+                                     List<Row> rows) {
+    public enum RowStatus { CREATED, UPDATED, FAILED }
+
+    public record Row(int row, String name, RowStatus status, Long productId, String error) { }
+}
@@ -0,0 +1,13 @@
+package org.example.shopyapi.dto;
+
+// Query parameters of GET /api/products, every field is optional.
+// sort is "id" (default) or "name"; cursor is the X-Next-Cursor value of the previous page.
+public record ProductListRequestDto(String namePrefix,
+                                   Integer minX,
+                                   Integer maxX,
+                                   Integer minY,
+                                   Integer maxY,
+                                   String sort,
+                                   String cursor,
+                                   Integer limit) {
+}
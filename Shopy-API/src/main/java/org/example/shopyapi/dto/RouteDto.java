@@ -2,16 +2,27 @@ package org.example.shopyapi.dto;
 
 import org.example.shopyapi.model.Order;
 import org.example.shopyapi.model.OrderStatus;
+import org.example.shopyapi.model.PickTour;
+import org.example.shopyapi.model.Point;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
-public record RouteDto(Long orderId, OrderStatus status, List<List<Integer>> visitedLocations) {
+// For batched orders visitedLocations holds only this order's stops, in the order the shared tour
+// reaches them. The tour's own path is never returned, it may pass other orders' shelves.
+public record RouteDto(Long orderId,
+                       OrderStatus status,
+                       List<List<Integer>> visitedLocations,
+                       Long pickTourId) {
     public static RouteDto fromEntity(Order order) {
-        List<List<Integer>> locations = order.getRoute().stream()
+        PickTour pickTour = order.getPickTour();
+        return new RouteDto(order.getId(), order.getStatus(), toLocations(order.getRoute()),
+                pickTour == null ? null : pickTour.getId());
+    }
+
+    private static List<List<Integer>> toLocations(List<Point> route) {
+        return route.stream()
                 .map(point -> List.of(point.getX(), point.getY()))
                 .collect(Collectors.toList());
-
-        return new RouteDto(order.getId(), order.getStatus(), locations);
     }
 }
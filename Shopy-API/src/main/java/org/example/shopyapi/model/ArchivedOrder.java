@@ -0,0 +1,80 @@
+package org.example.shopyapi.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.List;
+
+// A finished order moved out of the orders table by OrderArchiveService.
+// Items and route are stored as OrderCodec blobs; in PostgreSQL the table is partitioned by month of created_at.
+@Entity
+@Table(name = "order_archive", indexes = @Index(name = "idx_order_archive_user_id_id", columnList = "user_id, id"))
+public class ArchivedOrder {
+    // Stands in for the creation time of orders placed before orders.created_at existed, which is NULL there.
+    // created_at is the partition key and cannot be NULL; these orders land in the oldest partition.
+    public static final Instant UNKNOWN_CREATED_AT = Instant.EPOCH;
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "pick_tour_id")
+    private PickTour pickTour;
+
+    @Column(nullable = false, length = 1_000_000)
+    private byte[] items;
+
+    @Column(nullable = false, length = 1_000_000)
+    private byte[] route;
+
+    public ArchivedOrder() {}
+
+    public ArchivedOrder(Order order, Instant archivedAt) {
+        this.id = order.getId();
+        this.userId = order.getUser().getId();
+        this.status = order.getStatus();
+        this.createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : UNKNOWN_CREATED_AT;
+        this.archivedAt = archivedAt;
+        this.pickTour = order.getPickTour();
+        this.items = OrderCodec.encodeItems(order.getItems());
+        this.route = order.getPackedRoute().toBytes();
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    // Null when the creation time is unknown, like for the order before it was archived
+    public Instant getCreatedAt() {
+        return UNKNOWN_CREATED_AT.equals(createdAt) ? null : createdAt;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+
+    // Rebuilds the order for read-only use, the result is not attached to the orders table
+    public Order toOrder() {
+        Order order = new Order(id, status, OrderCodec.decodeItems(items), List.of());
+        order.setPackedRoute(PackedRoute.fromBytes(route));
+        order.setCreatedAt(getCreatedAt());
+        order.setPickTour(pickTour);
+        return order;
+    }
+}
@@ -1,10 +1,13 @@
 package org.example.shopyapi.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.Instant;
 import java.util.ArrayList;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_user_id_id", columnList = "user_id, id"))
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -17,11 +20,24 @@ public class Order {
     @JoinColumn(name = "user_id")
     private User user;
 
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+
+    // Batch fetching keeps loading the items of many orders (e.g. for archiving) to a few queries
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private java.util.List<OrderItem> items = new ArrayList<>();
 
-    @ElementCollection
-    private java.util.List<Point> route = new ArrayList<>();
+    // One binary column instead of a row per stop, decoded only when the route is read
+    @Convert(converter = PackedRouteConverter.class)
+    @Column(name = "route", length = 1_000_000)
+    private PackedRoute route = PackedRoute.EMPTY;
+
+    // Set when the order was picked as part of a batch; route then holds only this order's
+    // stops in the sequence the shared tour visits them.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "pick_tour_id")
+    private PickTour pickTour;
 
     public Order() {}
 
@@ -29,13 +45,21 @@ public class Order {
         this.id = newId;
         this.status = orderStatus;
         this.items = orderItems;
-        this.route = route;
+        this.route = PackedRoute.of(route);
     }
 
     public Long getId() {
         return this.id;
     }
 
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public OrderStatus getStatus() {
         return status;
     }
@@ -61,13 +85,36 @@ public class Order {
     }
 
     public java.util.List<Point> getRoute() {
-        return route;
+        return route.points();
     }
 
     public void setRoute(java.util.List<Point> route) {
+        this.route = PackedRoute.of(route);
+    }
+
+    PackedRoute getPackedRoute() {
+        return route;
+    }
+
+    void setPackedRoute(PackedRoute route) {
         this.route = route;
     }
 
+    public PickTour getPickTour() {
+        return pickTour;
+    }
+
+    public void setPickTour(PickTour pickTour) {
+        this.pickTour = pickTour;
+    }
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+
     public void addItem(OrderItem item) {
         items.add(item);
         item.setOrder(this);
@@ -0,0 +1,123 @@
+package org.example.shopyapi.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Compact binary form of routes and order lines, used where they are stored as one blob.
+// A route is its length followed by the step from the previous point (the first one from the depot at 0,0)
+// for x and y. Steps are small, so each is zigzag encoded (-1 -> 1, 1 -> 2, ...) and written as a
+// varint, 7 bits per byte: a typical route takes two bytes per point.
+// Order lines are the line count followed by name length, UTF-8 name and quantity per line.
+public final class OrderCodec {
+    private OrderCodec() {}
+
+    public static byte[] encodeRoute(List<Point> route) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + route.size() * 2);
+        writeVarInt(out, route.size());
+        int x = 0;
+        int y = 0;
+        for (Point point : route) {
+            writeVarInt(out, zigzag(point.getX() - x));
+            writeVarInt(out, zigzag(point.getY() - y));
+            x = point.getX();
+            y = point.getY();
+        }
+        return out.toByteArray();
+    }
+
+    public static List<Point> decodeRoute(byte[] data) {
+        Reader in = new Reader(data);
+        int size = in.readVarInt();
+        List<Point> route = new ArrayList<>(Math.min(size, data.length));
+        int x = 0;
+        int y = 0;
+        for (int i = 0; i < size; i++) {
+            x += unzigzag(in.readVarInt());
+            y += unzigzag(in.readVarInt());
+            route.add(new Point(x, y));
+        }
+        in.expectEnd();
+        return route;
+    }
+
+    public static byte[] encodeItems(List<OrderItem> items) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + items.size() * 16);
+        writeVarInt(out, items.size());
+        for (OrderItem item : items) {
+            byte[] name = item.getProductName().getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, name.length);
+            out.writeBytes(name);
+            writeVarInt(out, zigzag(item.getQuantity()));
+        }
+        return out.toByteArray();
+    }
+
+    public static List<OrderItem> decodeItems(byte[] data) {
+        Reader in = new Reader(data);
+        int size = in.readVarInt();
+        List<OrderItem> items = new ArrayList<>(Math.min(size, data.length));
+        for (int i = 0; i < size; i++) {
+            String name = in.readString(in.readVarInt());
+            items.add(new OrderItem(name, unzigzag(in.readVarInt())));
+        }
+        in.expectEnd();
+        return items;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        private Reader(byte[] data) {
+            this.data = data;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                if (position >= data.length) {
+                    throw new IllegalArgumentException("Truncated data at byte " + position);
+                }
+                byte b = data[position++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint at byte " + position);
+        }
+
+        private String readString(int length) {
+            if (length < 0 || length > data.length - position) {
+                throw new IllegalArgumentException("Truncated data at byte " + position);
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private void expectEnd() {
+            if (position != data.length) {
+                throw new IllegalArgumentException("Unexpected trailing data at byte " + position);
+            }
+        }
+    }
+}
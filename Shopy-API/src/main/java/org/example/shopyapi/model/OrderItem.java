@@ -5,8 +5,10 @@ import jakarta.persistence.*;
 @Entity
 @Table(name = "order_item")
 public class OrderItem {
+    // Sequence ids (allocated 50 at a time) let Hibernate batch the item inserts of an order
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_id_seq")
+    @SequenceGenerator(name = "order_item_id_seq", sequenceName = "order_item_id_seq", allocationSize = 50)
     private Long id;
 
     private String productName;
@@ -0,0 +1,45 @@
+package org.example.shopyapi.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+// A PENDING order that still has to be processed. Written in the same transaction as the order and
+// removed in the transaction that completes it, so accepted orders survive a restart.
+@Entity
+@Table(name = "order_outbox")
+public class OrderOutboxEntry implements Persistable<Long> {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "enqueued_at", nullable = false)
+    private Instant enqueuedAt;
+
+    public OrderOutboxEntry() {}
+
+    public OrderOutboxEntry(Long orderId, Instant enqueuedAt) {
+        this.orderId = orderId;
+        this.enqueuedAt = enqueuedAt;
+    }
+
+    // Entries are only ever inserted and deleted, so save inserts without looking the id up first
+    @Override
+    public Long getId() {
+        return this.orderId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public Long getOrderId() {
+        return this.orderId;
+    }
+
+    public Instant getEnqueuedAt() {
+        return this.enqueuedAt;
+    }
+}
@@ -1,6 +1,8 @@
 package org.example.shopyapi.model;
 
 public enum OrderStatus {
+    // Accepted by POST /api/orders/async and waiting for a worker
+    PENDING,
     SUCCESS,
     FAIL
 }
@@ -0,0 +1,52 @@
+package org.example.shopyapi.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+// A route as stored in one column: the OrderCodec bytes, decoded into points on first use only.
+// Instances are immutable, a changed route is a new PackedRoute.
+public final class PackedRoute {
+    public static final PackedRoute EMPTY = of(List.of());
+
+    private final byte[] data;
+    private volatile List<Point> points;
+
+    private PackedRoute(byte[] data, List<Point> points) {
+        this.data = data;
+        this.points = points;
+    }
+
+    public static PackedRoute of(List<Point> points) {
+        return new PackedRoute(OrderCodec.encodeRoute(points), List.copyOf(points));
+    }
+
+    // Takes ownership of data, the caller must not change it afterwards
+    public static PackedRoute fromBytes(byte[] data) {
+        return new PackedRoute(data, null);
+    }
+
+    public byte[] toBytes() {
+        return data.clone();
+    }
+
+    public List<Point> points() {
+        List<Point> decoded = points;
+        if (decoded == null) {
+            decoded = List.copyOf(OrderCodec.decodeRoute(data));
+            points = decoded;
+        }
+        return decoded;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(data, ((PackedRoute) o).data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(data);
+    }
+}
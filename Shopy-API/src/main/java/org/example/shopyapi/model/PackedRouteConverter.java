@@ -0,0 +1,18 @@
+package org.example.shopyapi.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Maps a PackedRoute to a binary column without decoding it
+@Converter
+public class PackedRouteConverter implements AttributeConverter<PackedRoute, byte[]> {
+    @Override
+    public byte[] convertToDatabaseColumn(PackedRoute route) {
+        return route == null ? null : route.toBytes();
+    }
+
+    @Override
+    public PackedRoute convertToEntityAttribute(byte[] data) {
+        return data == null ? PackedRoute.EMPTY : PackedRoute.fromBytes(data);
+    }
+}
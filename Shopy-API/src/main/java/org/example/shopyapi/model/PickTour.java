@@ -0,0 +1,43 @@
+package org.example.shopyapi.model;
+
+import jakarta.persistence.*;
+import java.util.ArrayList;
+
+// One picker walk shared by several batched orders.
+@Entity
+@Table(name = "pick_tour")
+public class PickTour {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Stored like Order.route, see PackedRoute
+    @Convert(converter = PackedRouteConverter.class)
+    @Column(name = "route", length = 1_000_000)
+    private PackedRoute route = PackedRoute.EMPTY;
+
+    @OneToMany(mappedBy = "pickTour")
+    private java.util.List<Order> orders = new ArrayList<>();
+
+    public PickTour() {}
+
+    public PickTour(java.util.List<Point> route) {
+        this.route = PackedRoute.of(route);
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public java.util.List<Point> getRoute() {
+        return route.points();
+    }
+
+    public void setRoute(java.util.List<Point> route) {
+        this.route = PackedRoute.of(route);
+    }
+
+    public java.util.List<Order> getOrders() {
+        return orders;
+    }
+}
@@ -7,8 +7,19 @@ import java.util.Locale;
 import java.util.Objects;
 
 @Entity
-@Table(name = "product", uniqueConstraints = @UniqueConstraint(columnNames = {"name", "location_x", "location_y", "user_id"}))
+@IdClass(ProductId.class)
+@Table(name = "product",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"name", "location_x", "location_y", "user_id"}),
+        indexes = {
+                @Index(name = "idx_product_user_id_name_id", columnList = "user_id, name, id"),
+                @Index(name = "idx_product_user_id_location", columnList = "user_id, location_x, location_y")
+        })
 public class Product {
+    // The key is (user_id, id), ids restart at 1 for every user
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
     @Id
     private Long id;
 
@@ -18,7 +29,7 @@ public class Product {
     private int quantity;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id")
+    @JoinColumn(name = "user_id", insertable = false, updatable = false)
     private User user;
 
     @Embedded
@@ -68,6 +79,10 @@ public class Product {
 
     public void setId(Long id) { this.id = id; }
 
+    public Long getUserId() {
+        return this.userId;
+    }
+
     public String getName() {
         return name;
     }
@@ -92,6 +107,7 @@ public class Product {
 
     public void setUser(User user) {
         this.user = user;
+        this.userId = user != null ? user.getId() : null;
     }
 
     public Point getLocation() {
@@ -145,6 +161,7 @@ public class Product {
         Product product = (Product) o;
         return Double.compare(price, product.price) == 0 && 
                quantity == product.quantity && 
+               Objects.equals(userId, product.userId) &&
                Objects.equals(id, product.id) && 
                Objects.equals(name, product.name) && 
                Objects.equals(location, product.location);
@@ -152,7 +169,7 @@ public class Product {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, name, price, quantity, location);
+        return Objects.hash(userId, id, name, price, quantity, location);
     }
 
     @Override
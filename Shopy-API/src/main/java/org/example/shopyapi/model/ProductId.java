@@ -0,0 +1,43 @@
+package org.example.shopyapi.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// Primary key of Product. Product ids are numbered per user, so the owner is part of the key.
+public class ProductId implements Serializable {
+    private Long userId;
+    private Long id;
+
+    public ProductId() {}
+
+    public ProductId(Long userId, Long id) {
+        this.userId = userId;
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return this.userId;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductId productId = (ProductId) o;
+        return Objects.equals(userId, productId.userId) && Objects.equals(id, productId.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, id);
+    }
+
+    @Override
+    public String toString() {
+        return userId + "/" + id;
+    }
+}
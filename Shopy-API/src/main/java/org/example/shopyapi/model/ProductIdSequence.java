@@ -0,0 +1,34 @@
+package org.example.shopyapi.model;
+
+import jakarta.persistence.*;
+
+// Next free product id of one user. Product ids are numbered per user.
+@Entity
+@Table(name = "product_id_sequence")
+public class ProductIdSequence {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "next_id", nullable = false)
+    private long nextId;
+
+    public ProductIdSequence() {}
+
+    public ProductIdSequence(Long userId, long nextId) {
+        this.userId = userId;
+        this.nextId = nextId;
+    }
+
+    public Long getUserId() {
+        return this.userId;
+    }
+
+    public long getNextId() {
+        return this.nextId;
+    }
+
+    public void setNextId(long nextId) {
+        this.nextId = nextId;
+    }
+}
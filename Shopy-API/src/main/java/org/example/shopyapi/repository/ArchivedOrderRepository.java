@@ -0,0 +1,10 @@
+package org.example.shopyapi.repository;
+
+import org.example.shopyapi.model.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    Optional<ArchivedOrder> findByIdAndUserId(Long id, Long userId);
+}
@@ -0,0 +1,19 @@
+package org.example.shopyapi.repository;
+
+import org.example.shopyapi.model.OrderOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEntry, Long> {
+    List<OrderOutboxEntry> findAllByOrderByOrderIdAsc();
+
+    // Claims the entry for the calling transaction. Returns 0 when it was already processed;
+    // a concurrent claim waits on the row lock and then gets 0 as well.
+    @Modifying
+    @Query("delete from OrderOutboxEntry e where e.orderId = :orderId")
+    int claim(@Param("orderId") Long orderId);
+}
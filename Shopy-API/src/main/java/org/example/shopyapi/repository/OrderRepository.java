@@ -1,12 +1,26 @@
 package org.example.shopyapi.repository;
 
 import org.example.shopyapi.model.Order;
+import org.example.shopyapi.model.OrderStatus;
 import org.example.shopyapi.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUser(User user);
     List<Order> findByUserId(Long userId);
+    Optional<Order> findByIdAndUserId(Long id, Long userId);
+
+    // Oldest first, the next batch of orders for OrderArchiveService.
+    // A NULL created_at marks an order from before the column was added, older than any cutoff.
+    @Query("select o from Order o where (o.createdAt is null or o.createdAt < :cutoff) and o.status in :statuses"
+            + " and o.user is not null order by o.id")
+    List<Order> findArchivable(@Param("cutoff") Instant cutoff, @Param("statuses") Collection<OrderStatus> statuses, Pageable pageable);
 } 
\ No newline at end of file
@@ -0,0 +1,7 @@
+package org.example.shopyapi.repository;
+
+import org.example.shopyapi.model.PickTour;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PickTourRepository extends JpaRepository<PickTour, Long> {
+}
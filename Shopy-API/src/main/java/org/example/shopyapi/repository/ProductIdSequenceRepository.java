@@ -0,0 +1,20 @@
+package org.example.shopyapi.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.shopyapi.model.ProductIdSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ProductIdSequenceRepository extends JpaRepository<ProductIdSequence, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ProductIdSequence s where s.userId = :userId")
+    Optional<ProductIdSequence> findForUpdate(@Param("userId") Long userId);
+
+    // Only used the first time a user gets ids from the sequence
+    @Query("select coalesce(max(p.id), 0) from Product p where p.userId = :userId")
+    long findMaxProductId(@Param("userId") Long userId);
+}
@@ -1,16 +1,45 @@
 package org.example.shopyapi.repository;
 
 import org.example.shopyapi.model.Product;
+import org.example.shopyapi.model.ProductId;
 import org.example.shopyapi.model.Point;
 import org.example.shopyapi.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, ProductId> {
     Optional<Product> findByName(String name);
     Optional<Product> findByLocation(Point location);
     List<Product> findByUser(User user);
     List<Product> findByUserId(Long userId);
+    List<Product> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
     Optional<Product> findByNameAndUser(String name, User user);
+    Optional<Product> findByNameAndUserId(String name, Long userId);
+    List<Product> findByUserAndNameIn(User user, Collection<String> names);
+
+    // Owner-scoped lookups, ownership is checked by the database in the same indexed query.
+    // Single products are looked up with findById(new ProductId(userId, id)), a primary key seek.
+    Optional<Product> findByLocationAndUserId(Point location, Long userId);
+
+    @Modifying
+    @Query("delete from Product p where p.userId = :userId and p.id = :id")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Conditional updates: the stock check and the decrement are one atomic statement.
+    // They return the number of updated rows, 0 means the product is missing or short.
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity - :quantity where p.userId = :userId and p.id = :id and p.quantity >= :quantity")
+    int decreaseStock(@Param("id") Long id, @Param("userId") Long userId, @Param("quantity") int quantity);
+
+    @Query("select p.quantity from Product p where p.userId = :userId and p.id = :id")
+    Optional<Integer> findQuantity(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity + :quantity where p.userId = :userId and p.id = :id")
+    int increaseStock(@Param("id") Long id, @Param("userId") Long userId, @Param("quantity") int quantity);
 } 
\ No newline at end of file
@@ -0,0 +1,77 @@
+package org.example.shopyapi.routing;
+
+// Distances between route nodes stored as packed x/y coordinate arrays.
+// Node 0 is always the warehouse start point, nodes 1..n are the pickup locations.
+// Up to PRECOMPUTE_LIMIT nodes the Manhattan distances are precomputed into a flat row-major array,
+// above that they are computed on the fly so large pick lists do not allocate an n^2 matrix.
+// Walkable distances from the warehouse layout are always precomputed and may be asymmetric.
+public final class DistanceMatrix {
+    public static final int PRECOMPUTE_LIMIT = 512;
+
+    private final int size;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] distances;
+    private final boolean symmetric;
+
+    private DistanceMatrix(int size, int[] xs, int[] ys, int[] distances, boolean symmetric) {
+        this.size = size;
+        this.xs = xs;
+        this.ys = ys;
+        this.distances = distances;
+        this.symmetric = symmetric;
+    }
+
+    public static DistanceMatrix manhattan(int[] xs, int[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        int size = xs.length;
+        if (size > PRECOMPUTE_LIMIT) {
+            return new DistanceMatrix(size, xs, ys, null, true);
+        }
+
+        int[] distances = new int[size * size];
+        for (int a = 0; a < size; a++) {
+            int row = a * size;
+            int x = xs[a];
+            int y = ys[a];
+            for (int b = 0; b < size; b++) {
+                distances[row + b] = Math.abs(x - xs[b]) + Math.abs(y - ys[b]);
+            }
+        }
+        return new DistanceMatrix(size, xs, ys, distances, true);
+    }
+
+    public static DistanceMatrix of(int[] distances, int size, boolean symmetric) {
+        if (distances.length != size * size) {
+            throw new IllegalArgumentException("Distance array must hold size * size entries");
+        }
+        return new DistanceMatrix(size, null, null, distances, symmetric);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    public int get(int a, int b) {
+        if (distances != null) {
+            return distances[a * size + b];
+        }
+        return Math.abs(xs[a] - xs[b]) + Math.abs(ys[a] - ys[b]);
+    }
+
+    public int tourLength(int[] visitOrder) {
+        int length = 0;
+        int previous = 0;
+        for (int node : visitOrder) {
+            length += get(previous, node);
+            previous = node;
+        }
+        return length + get(previous, 0);
+    }
+}
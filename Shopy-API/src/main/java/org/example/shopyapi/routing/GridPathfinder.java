@@ -0,0 +1,190 @@
+package org.example.shopyapi.routing;
+
+import org.example.shopyapi.model.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// A* pathfinder over the warehouse layout with a cache of shortest legs between locations.
+// Shelf locations repeat across orders, so after the first order touching two shelves
+// the walkable distance and the waypoints between them are an O(1) lookup.
+//
+// Jump point search is not used because its pruning rules assume every open cell can be
+// left in every direction, which does not hold for one-way aisles.
+public class GridPathfinder {
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+    private static final int[] DIRECTIONS = {
+            WarehouseLayout.EAST, WarehouseLayout.WEST, WarehouseLayout.NORTH, WarehouseLayout.SOUTH
+    };
+
+    private final WarehouseLayout layout;
+    private final int maxCachedLegs;
+    private final ConcurrentMap<Long, Leg> legs = new ConcurrentHashMap<>();
+
+    // Shortest walk between two cells: its length and the start cell plus every turning cell,
+    // excluding the destination.
+    private record Leg(int distance, int[] waypoints) { }
+
+    public GridPathfinder(WarehouseLayout layout, int maxCachedLegs) {
+        this.layout = layout;
+        this.maxCachedLegs = maxCachedLegs;
+    }
+
+    public WarehouseLayout getLayout() {
+        return layout;
+    }
+
+    public int toCell(int x, int y) {
+        if (!layout.contains(x, y)) {
+            throw new IllegalArgumentException("Location [" + x + ", " + y + "] is outside the warehouse layout");
+        }
+        int cell = layout.cell(x, y);
+        if (!layout.isWalkable(cell)) {
+            throw new IllegalArgumentException("Location [" + x + ", " + y + "] is not walkable in the warehouse layout");
+        }
+        return cell;
+    }
+
+    public DistanceMatrix distanceMatrix(int[] cells) {
+        int size = cells.length;
+        int[] distances = new int[size * size];
+        for (int a = 0; a < size; a++) {
+            for (int b = 0; b < size; b++) {
+                if (a != b) {
+                    distances[a * size + b] = leg(cells[a], cells[b]).distance();
+                }
+            }
+        }
+        return DistanceMatrix.of(distances, size, !layout.hasOneWayAisles());
+    }
+
+    // Expands the tour 0 -> visitOrder -> 0 into the walkable path.
+    public List<Point> buildPath(int[] cells, int[] visitOrder) {
+        List<Point> fullPath = new ArrayList<>();
+        int start = cells[0];
+        for (int i = 0; i <= visitOrder.length; i++) {
+            int end = i < visitOrder.length ? cells[visitOrder[i]] : cells[0];
+            for (int waypoint : leg(start, end).waypoints()) {
+                fullPath.add(toPoint(waypoint));
+            }
+            start = end;
+        }
+        fullPath.add(toPoint(cells[0]));
+        return fullPath;
+    }
+
+    private Leg leg(int from, int to) {
+        long key = ((long) from << 32) | (to & 0xFFFFFFFFL);
+        Leg leg = legs.get(key);
+        if (leg != null) {
+            return leg;
+        }
+
+        leg = findLeg(from, to);
+        // Crude bound on memory: start over rather than track recency on the hot read path
+        if (legs.size() >= maxCachedLegs) {
+            legs.clear();
+        }
+        legs.put(key, leg);
+        return leg;
+    }
+
+    private Leg findLeg(int from, int to) {
+        if (from == to) {
+            return new Leg(0, new int[] {from});
+        }
+
+        int width = layout.width();
+        int cellCount = width * layout.height();
+        int[] cost = new int[cellCount];
+        int[] cameFrom = new int[cellCount];
+        Arrays.fill(cost, Integer.MAX_VALUE);
+        BitSet closed = new BitSet(cellCount);
+
+        int targetX = to % width;
+        int targetY = to / width;
+
+        // Entries are packed as (estimated total cost << 32) | cell
+        PriorityQueue<Long> open = new PriorityQueue<>();
+        cost[from] = 0;
+        cameFrom[from] = -1;
+        open.add(((long) heuristic(from, targetX, targetY, width) << 32) | from);
+
+        while (!open.isEmpty()) {
+            int current = (int) (open.poll() & 0xFFFFFFFFL);
+            if (current == to) {
+                return new Leg(cost[to], waypoints(cameFrom, to));
+            }
+            if (closed.get(current)) {
+                continue;
+            }
+            closed.set(current);
+
+            int x = current % width;
+            int y = current / width;
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                if (!layout.canExit(current, DIRECTIONS[d])) {
+                    continue;
+                }
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!layout.contains(nx, ny)) {
+                    continue;
+                }
+                int next = layout.cell(nx, ny);
+                if (!layout.isWalkable(next) || closed.get(next)) {
+                    continue;
+                }
+                int nextCost = cost[current] + 1;
+                if (nextCost < cost[next]) {
+                    cost[next] = nextCost;
+                    cameFrom[next] = current;
+                    open.add(((long) (nextCost + heuristic(next, targetX, targetY, width)) << 32) | next);
+                }
+            }
+        }
+
+        throw new IllegalStateException("No walkable path from " + toPoint(from) + " to " + toPoint(to));
+    }
+
+    // Keeps the start cell and every cell where the walking direction changes.
+    private int[] waypoints(int[] cameFrom, int to) {
+        int[] reversed = new int[16];
+        int count = 0;
+        int previousStep = 0;
+        int cell = to;
+        while (cameFrom[cell] != -1) {
+            int parent = cameFrom[cell];
+            int step = cell - parent;
+            if (previousStep != 0 && step != previousStep) {
+                if (count == reversed.length) {
+                    reversed = Arrays.copyOf(reversed, count * 2);
+                }
+                reversed[count++] = cell;
+            }
+            previousStep = step;
+            cell = parent;
+        }
+
+        int[] waypoints = new int[count + 1];
+        waypoints[0] = cell;
+        for (int i = 0; i < count; i++) {
+            waypoints[i + 1] = reversed[count - 1 - i];
+        }
+        return waypoints;
+    }
+
+    private int heuristic(int cell, int targetX, int targetY, int width) {
+        return Math.abs(cell % width - targetX) + Math.abs(cell / width - targetY);
+    }
+
+    private Point toPoint(int cell) {
+        return new Point(cell % layout.width(), cell / layout.width());
+    }
+}
@@ -0,0 +1,176 @@
+package org.example.shopyapi.routing;
+
+import org.springframework.stereotype.Component;
+
+// Heuristic solver for larger pick lists.
+// Builds a Nearest Neighbor tour and improves it with 2-opt and Or-opt moves
+// until no improving move is left or the time budget runs out.
+@Component
+public class LocalSearchRouteSolver implements RouteSolver {
+    private static final int MAX_OR_OPT_SEGMENT = 3;
+
+    @Override
+    public int[] solve(DistanceMatrix distances, long deadlineNanos) {
+        int n = distances.size() - 1;
+        if (n <= 2) {
+            int[] visitOrder = new int[n];
+            for (int i = 0; i < n; i++) {
+                visitOrder[i] = i + 1;
+            }
+            return visitOrder;
+        }
+
+        // The tour always starts with node 0 and implicitly returns to it.
+        int[] tour = nearestNeighborTour(distances);
+
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadlineNanos) {
+            improved = twoOpt(distances, tour, deadlineNanos);
+            improved |= orOpt(distances, tour, deadlineNanos);
+        }
+
+        int[] visitOrder = new int[n];
+        System.arraycopy(tour, 1, visitOrder, 0, n);
+        return visitOrder;
+    }
+
+    private int[] nearestNeighborTour(DistanceMatrix distances) {
+        int size = distances.size();
+        int[] tour = new int[size];
+
+        // Unvisited nodes are kept packed at the front of the array and removed by swapping with the last one.
+        int[] remaining = new int[size - 1];
+        for (int i = 0; i < remaining.length; i++) {
+            remaining[i] = i + 1;
+        }
+        int remainingCount = remaining.length;
+
+        int current = 0;
+        for (int position = 1; position < size; position++) {
+            int nearestIndex = 0;
+            int shortestDistance = Integer.MAX_VALUE;
+            for (int i = 0; i < remainingCount; i++) {
+                int distance = distances.get(current, remaining[i]);
+                if (distance < shortestDistance) {
+                    shortestDistance = distance;
+                    nearestIndex = i;
+                }
+            }
+            current = remaining[nearestIndex];
+            tour[position] = current;
+            remaining[nearestIndex] = remaining[--remainingCount];
+        }
+        return tour;
+    }
+
+    // Reverses the tour segment between i and k whenever that shortens the tour.
+    // With asymmetric distances the reversed segment is walked backwards, so its own length changes too;
+    // that difference is tracked incrementally while k grows.
+    private boolean twoOpt(DistanceMatrix distances, int[] tour, long deadlineNanos) {
+        int size = tour.length;
+        boolean symmetric = distances.isSymmetric();
+        boolean improved = false;
+
+        for (int i = 1; i < size - 1; i++) {
+            if (System.nanoTime() >= deadlineNanos) {
+                return improved;
+            }
+            int segmentDelta = 0;
+            for (int k = i + 1; k < size; k++) {
+                int a = tour[i - 1];
+                int b = tour[i];
+                int c = tour[k];
+                int d = tour[(k + 1) % size];
+                if (!symmetric) {
+                    segmentDelta += distances.get(c, tour[k - 1]) - distances.get(tour[k - 1], c);
+                }
+
+                int delta = distances.get(a, c) + distances.get(b, d)
+                        - distances.get(a, b) - distances.get(c, d) + segmentDelta;
+                if (delta < 0) {
+                    reverse(tour, i, k);
+                    improved = true;
+                    if (!symmetric) {
+                        break;
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Moves a segment of up to three consecutive stops to a better place in the tour,
+    // optionally reversing it.
+    private boolean orOpt(DistanceMatrix distances, int[] tour, long deadlineNanos) {
+        int size = tour.length;
+        boolean improved = false;
+
+        for (int length = 1; length <= MAX_OR_OPT_SEGMENT && length < size - 1; length++) {
+            for (int i = 1; i + length <= size; i++) {
+                if (System.nanoTime() >= deadlineNanos) {
+                    return improved;
+                }
+                int segmentEnd = i + length - 1;
+                int prev = tour[i - 1];
+                int first = tour[i];
+                int last = tour[segmentEnd];
+                int next = tour[(segmentEnd + 1) % size];
+
+                int removeGain = distances.get(prev, first) + distances.get(last, next) - distances.get(prev, next);
+                if (removeGain <= 0) {
+                    continue;
+                }
+
+                for (int p = 0; p < size; p++) {
+                    if (p >= i - 1 && p <= segmentEnd) {
+                        continue;
+                    }
+                    int from = tour[p];
+                    int to = tour[(p + 1) % size];
+                    int baseCost = distances.get(from, to);
+
+                    int forwardCost = distances.get(from, first) + distances.get(last, to) - baseCost;
+                    // A reversed segment is only cheaper to compare when distances are symmetric
+                    int reversedCost = distances.isSymmetric()
+                            ? distances.get(from, last) + distances.get(first, to) - baseCost
+                            : Integer.MAX_VALUE;
+                    if (forwardCost < removeGain || reversedCost < removeGain) {
+                        moveSegment(tour, i, segmentEnd, p, reversedCost < forwardCost);
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Moves tour[start..end] so that it follows the node currently at position p.
+    // Done in place with array rotations so the search loop does not allocate.
+    private void moveSegment(int[] tour, int start, int end, int p, boolean reversed) {
+        if (reversed) {
+            reverse(tour, start, end);
+        }
+        if (p > end) {
+            rotateLeft(tour, start, p, end - start + 1);
+        } else {
+            rotateLeft(tour, p + 1, end, start - p - 1);
+        }
+    }
+
+    private void rotateLeft(int[] tour, int from, int to, int shift) {
+        reverse(tour, from, from + shift - 1);
+        reverse(tour, from + shift, to);
+        reverse(tour, from, to);
+    }
+
+    private void reverse(int[] tour, int i, int k) {
+        while (i < k) {
+            int tmp = tour[i];
+            tour[i] = tour[k];
+            tour[k] = tmp;
+            i++;
+            k--;
+        }
+    }
+}
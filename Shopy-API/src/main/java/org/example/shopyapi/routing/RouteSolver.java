@@ -0,0 +1,7 @@
+package org.example.shopyapi.routing;
+
+public interface RouteSolver {
+    // Returns the indices 1..n of the pickup nodes in the order they should be visited,
+    // for a closed tour that leaves from and returns to node 0.
+    int[] solve(DistanceMatrix distances, long deadlineNanos);
+}
@@ -0,0 +1,116 @@
+package org.example.shopyapi.routing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+// Walkable floor plan of the warehouse, stored as a compact bitset grid.
+// Cells are indexed as y * width + x. One-way aisle cells additionally restrict
+// the direction in which a picker may leave them.
+//
+// Text format, one line per row starting at y = 0, lines starting with "//" are comments:
+//   .  walkable in every direction (aisles and cross-aisles)
+//   #  blocked (racks, walls, columns)
+//   >  <  ^  v  one-way aisle cell, may only be left towards +x, -x, -y or +y
+public final class WarehouseLayout {
+    static final int EAST = 1;
+    static final int WEST = 1 << 1;
+    static final int NORTH = 1 << 2;
+    static final int SOUTH = 1 << 3;
+    static final int ALL_DIRECTIONS = EAST | WEST | NORTH | SOUTH;
+
+    private final int width;
+    private final int height;
+    private final BitSet blocked;
+    // Allowed exit directions per cell, null when the layout has no one-way aisles
+    private final byte[] exits;
+
+    private WarehouseLayout(int width, int height, BitSet blocked, byte[] exits) {
+        this.width = width;
+        this.height = height;
+        this.blocked = blocked;
+        this.exits = exits;
+    }
+
+    public static WarehouseLayout parse(Reader source) throws IOException {
+        List<String> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(source)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("//") || line.isBlank()) {
+                    continue;
+                }
+                rows.add(line.stripTrailing());
+            }
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Warehouse layout is empty");
+        }
+
+        int height = rows.size();
+        int width = rows.stream().mapToInt(String::length).max().orElse(0);
+        BitSet blocked = new BitSet(width * height);
+        byte[] exits = null;
+
+        for (int y = 0; y < height; y++) {
+            String row = rows.get(y);
+            for (int x = 0; x < width; x++) {
+                int cell = y * width + x;
+                // Short rows are padded with blocked cells
+                char symbol = x < row.length() ? row.charAt(x) : '#';
+                int allowed = switch (symbol) {
+                    case '.' -> ALL_DIRECTIONS;
+                    case '#' -> 0;
+                    case '>' -> EAST;
+                    case '<' -> WEST;
+                    case '^' -> NORTH;
+                    case 'v' -> SOUTH;
+                    default -> throw new IllegalArgumentException(
+                            "Unknown warehouse layout symbol '" + symbol + "' at [" + x + ", " + y + "]");
+                };
+                if (allowed == 0) {
+                    blocked.set(cell);
+                } else if (allowed != ALL_DIRECTIONS) {
+                    if (exits == null) {
+                        exits = new byte[width * height];
+                        Arrays.fill(exits, (byte) ALL_DIRECTIONS);
+                    }
+                    exits[cell] = (byte) allowed;
+                }
+            }
+        }
+        return new WarehouseLayout(width, height, blocked, exits);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    public int cell(int x, int y) {
+        return y * width + x;
+    }
+
+    public boolean isWalkable(int cell) {
+        return !blocked.get(cell);
+    }
+
+    public boolean hasOneWayAisles() {
+        return exits != null;
+    }
+
+    public boolean canExit(int cell, int direction) {
+        return exits == null || (exits[cell] & direction) != 0;
+    }
+}
@@ -0,0 +1,190 @@
+package org.example.shopyapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.example.shopyapi.dto.OrderStatusDto;
+import org.example.shopyapi.dto.PlaceOrderRequestDto;
+import org.example.shopyapi.model.Order;
+import org.example.shopyapi.model.OrderResult;
+import org.example.shopyapi.model.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Orders placed through POST /api/orders/async. The request thread only saves the order as PENDING
+// with an outbox entry and queues its id; a fixed number of workers complete the orders through
+// OrderService.completePendingOrder. Workers run on virtual threads when spring.threads.virtual.enabled is set.
+// The queue holds at most queue-capacity orders, submit is rejected beyond that instead of waiting.
+// Orders still in the outbox at startup (accepted before a restart) are queued again.
+@Service
+public class AsyncOrderService {
+    private static final Logger log = LoggerFactory.getLogger(AsyncOrderService.class);
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final OrderService orderService;
+    private final OrderStatusNotifier orderStatusNotifier;
+    private final int workers;
+    private final boolean virtualThreads;
+
+    private final BlockingQueue<QueuedOrder> queue = new LinkedBlockingQueue<>();
+    // One permit per free queue slot, taken before the order is saved
+    private final Semaphore freeSlots;
+    private final CountDownLatch stopped;
+    private volatile boolean running;
+
+    private final Timer queueWait;
+    private final Timer processingSuccess;
+    private final Timer processingFail;
+    private final Counter rejected;
+
+    private record QueuedOrder(long orderId, long enqueuedNanos) { }
+
+    public AsyncOrderService(OrderService orderService,
+                             OrderStatusNotifier orderStatusNotifier,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.orders.async.workers:16}") int workers,
+                             @Value("${app.orders.async.queue-capacity:1000}") int queueCapacity,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (workers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Order workers and queue capacity must be at least 1");
+        }
+        this.orderService = orderService;
+        this.orderStatusNotifier = orderStatusNotifier;
+        this.workers = workers;
+        this.virtualThreads = virtualThreads;
+        this.freeSlots = new Semaphore(queueCapacity);
+        this.stopped = new CountDownLatch(workers);
+
+        meterRegistry.gauge("shopy.orders.queue.depth", queue, BlockingQueue::size);
+        this.queueWait = Timer.builder("shopy.orders.queue.wait")
+                .description("Time from accepting an order until a worker picks it up")
+                .register(meterRegistry);
+        this.processingSuccess = processingTimer(meterRegistry, "SUCCESS");
+        this.processingFail = processingTimer(meterRegistry, "FAIL");
+        this.rejected = Counter.builder("shopy.orders.rejected")
+                .description("Orders rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    private static Timer processingTimer(MeterRegistry meterRegistry, String status) {
+        return Timer.builder("shopy.orders.processing")
+                .description("Time a worker spends completing an order")
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+
+    // Throws RejectedExecutionException when the queue is full
+    public Order submit(PlaceOrderRequestDto requestDto, String userEmail) {
+        if (!freeSlots.tryAcquire()) {
+            rejected.increment();
+            throw new RejectedExecutionException("Too many orders waiting, try again later");
+        }
+        Order order;
+        try {
+            order = orderService.placePendingOrder(requestDto, userEmail);
+        } catch (RuntimeException e) {
+            freeSlots.release();
+            throw e;
+        }
+        queue.add(new QueuedOrder(order.getId(), System.nanoTime()));
+        return order;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("order-worker-");
+        executor.setVirtualThreads(virtualThreads);
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+
+        // Recovered orders wait for free slots like new ones, without holding up startup
+        List<Long> pending = orderService.findPendingOrderIds();
+        if (!pending.isEmpty()) {
+            log.info("Requeueing {} pending orders from the outbox", pending.size());
+            executor.execute(() -> requeue(pending));
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        // Orders left in the queue stay in the outbox and are picked up after the restart
+        stopped.await(10, TimeUnit.SECONDS);
+    }
+
+    private void requeue(List<Long> orderIds) {
+        try {
+            for (Long orderId : orderIds) {
+                freeSlots.acquire();
+                queue.add(new QueuedOrder(orderId, System.nanoTime()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void work() {
+        try {
+            while (running) {
+                QueuedOrder queued = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (queued == null) {
+                    continue;
+                }
+                freeSlots.release();
+                queueWait.record(System.nanoTime() - queued.enqueuedNanos(), TimeUnit.NANOSECONDS);
+                process(queued.orderId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stopped.countDown();
+        }
+    }
+
+    private void process(long orderId) {
+        long start = System.nanoTime();
+        Optional<OrderResult> result = Optional.empty();
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                result = orderService.completePendingOrder(orderId);
+                break;
+            } catch (RuntimeException e) {
+                log.warn("Attempt {} to process order {} failed", attempt, orderId, e);
+            }
+        }
+        if (result.isEmpty()) {
+            try {
+                result = orderService.failPendingOrder(orderId, "Your order could not be processed.");
+            } catch (RuntimeException e) {
+                log.error("Order {} stays pending, it could not be marked as failed", orderId, e);
+                return;
+            }
+        }
+
+        result.ifPresent(completed -> {
+            Timer timer = completed.status() == OrderStatus.SUCCESS ? processingSuccess : processingFail;
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        });
+        // Only look the order up again when a client is waiting for it
+        if (result.isPresent() && orderStatusNotifier.hasSubscribers(orderId)) {
+            orderService.findById(orderId).map(OrderStatusDto::fromEntity).ifPresent(orderStatusNotifier::publish);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.shopyapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+// Idempotency-Key support: the first request with a key runs, its result is kept for ttl-minutes,
+// and a retry with the same key gets that result back instead of running again. A duplicate that
+// arrives while the first one is still running waits for it. Keys are per user and bound to the
+// request they were first sent with, reusing one for a different request is rejected.
+// Results are held in memory on this instance, like the other caches of the API.
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private record Key(Long userId, String key) { }
+
+    // requestHash is the SHA-256 of the endpoint and the request body
+    private record Entry(ByteBuffer requestHash, CompletableFuture<Object> result) { }
+
+    public record Execution<T>(T result, boolean replayed) { }
+
+    public static class KeyReusedException extends IllegalStateException {
+        public KeyReusedException(String key) {
+            super("Idempotency key '" + key + "' was already used for a different request");
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, Entry> entries;
+
+    public IdempotencyService(ObjectMapper objectMapper,
+                              @Value("${app.orders.idempotency.ttl-minutes:1440}") long ttlMinutes,
+                              @Value("${app.orders.idempotency.max-keys:100000}") long maxKeys) {
+        this.objectMapper = objectMapper;
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    public static boolean isValidKey(String key) {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < ' ' || c > '~') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Runs action once per user and key, without a key it simply runs.
+    // An action that throws leaves no result behind, so the request can be retried with the same key.
+    @SuppressWarnings("unchecked")
+    public <T> Execution<T> execute(Long userId, String key, String endpoint, Object request, Supplier<T> action) {
+        if (key == null) {
+            return new Execution<>(action.get(), false);
+        }
+        Entry entry = new Entry(requestHash(endpoint, request), new CompletableFuture<>());
+        Key cacheKey = new Key(userId, key);
+        Entry existing = entries.asMap().putIfAbsent(cacheKey, entry);
+        if (existing != null) {
+            if (!existing.requestHash().equals(entry.requestHash())) {
+                throw new KeyReusedException(key);
+            }
+            try {
+                return new Execution<>((T) existing.result().join(), true);
+            } catch (CompletionException e) {
+                // The first request failed, the waiting duplicate fails the same way
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException | Error e) {
+            entries.asMap().remove(cacheKey, entry);
+            entry.result().completeExceptionally(e);
+            throw e;
+        }
+        entry.result().complete(result);
+        return new Execution<>(result, false);
+    }
+
+    private ByteBuffer requestHash(String endpoint, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(endpoint.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return ByteBuffer.wrap(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request cannot be serialized", e);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package org.example.shopyapi.service;
+
+import org.example.shopyapi.dto.InventoryEventDto;
+import org.example.shopyapi.dto.ProductDto;
+import org.example.shopyapi.model.Product;
+import org.example.shopyapi.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Server-sent events of product changes, per user, for GET /api/products/events.
+// Changes are only tracked for users with a subscriber or one that disconnected less than
+// retention-minutes ago. They are collected for coalesce-ms and sent as one event per changed
+// product carrying its current state, so a product sold many times in a burst costs one event
+// and one lookup. The last replay-size events are kept so a reconnecting client can resume
+// after its Last-Event-ID; when that is no longer possible it gets a RESET event and reloads.
+@Service
+public class InventoryEventService {
+    private final ProductRepository productRepository;
+    private final long timeoutMillis;
+    private final int replaySize;
+    private final long retentionNanos;
+    // Ids continue from the start time, so ids handed out by an earlier instance are older than any of this one
+    private final AtomicLong lastEventId = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final Map<Long, UserStream> streams = new ConcurrentHashMap<>();
+    private final Set<Long> changedUsers = ConcurrentHashMap.newKeySet();
+
+    private record Event(long id, InventoryEventDto data) { }
+
+    // Everything but the map entry is guarded by lock
+    private static final class UserStream {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, InventoryEventDto.Type> pending = new HashMap<>();
+        private boolean resetPending;
+        private final ArrayDeque<Event> recent = new ArrayDeque<>();
+        // Clients that saw this id or a later one can resume from recent
+        private long resumableFrom;
+        private final List<SseEmitter> emitters = new ArrayList<>();
+        private long idleSince = System.nanoTime();
+        private boolean closed;
+
+        private UserStream(long resumableFrom) {
+            this.resumableFrom = resumableFrom;
+        }
+    }
+
+    public InventoryEventService(ProductRepository productRepository,
+                                 @Value("${app.inventory.events.sse-timeout-ms:1800000}") long timeoutMillis,
+                                 @Value("${app.inventory.events.replay-size:500}") int replaySize,
+                                 @Value("${app.inventory.events.retention-minutes:10}") int retentionMinutes) {
+        if (replaySize < 1 || retentionMinutes < 0) {
+            throw new IllegalArgumentException("Inventory event replay size must be at least 1 and retention not negative");
+        }
+        this.productRepository = productRepository;
+        this.timeoutMillis = timeoutMillis;
+        this.replaySize = replaySize;
+        this.retentionNanos = Duration.ofMinutes(retentionMinutes).toNanos();
+    }
+
+    // Called inside a transaction, the change is recorded once it commits
+    public void productChanged(Long userId, Long productId, InventoryEventDto.Type type) {
+        if (!streams.containsKey(userId)) {
+            return;
+        }
+        afterCommit(() -> record(userId, stream -> {
+            stream.pending.merge(productId, type, (previous, next) -> previous.compareTo(next) >= 0 ? previous : next);
+        }));
+    }
+
+    // For changes too large to send one by one, such as bulk imports
+    public void productsReplaced(Long userId) {
+        if (!streams.containsKey(userId)) {
+            return;
+        }
+        afterCommit(() -> record(userId, stream -> {
+            stream.pending.clear();
+            stream.resetPending = true;
+        }));
+    }
+
+    // lastEventId is the id of the last event the client received, null for a new client
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        while (true) {
+            UserStream stream = streams.computeIfAbsent(userId, id -> new UserStream(this.lastEventId.get()));
+            stream.lock.lock();
+            try {
+                if (stream.closed) {
+                    continue;
+                }
+                try {
+                    if (lastEventId != null && lastEventId < stream.resumableFrom) {
+                        send(emitter, new Event(nextEventId(), new InventoryEventDto(InventoryEventDto.Type.RESET, null, null)));
+                    } else if (lastEventId != null) {
+                        for (Event event : stream.recent) {
+                            if (event.id() > lastEventId) {
+                                send(emitter, event);
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    emitter.completeWithError(e);
+                    return emitter;
+                }
+                stream.emitters.add(emitter);
+            } finally {
+                stream.lock.unlock();
+            }
+
+            Runnable remove = () -> {
+                stream.lock.lock();
+                try {
+                    if (stream.emitters.remove(emitter) && stream.emitters.isEmpty()) {
+                        stream.idleSince = System.nanoTime();
+                    }
+                } finally {
+                    stream.lock.unlock();
+                }
+            };
+            emitter.onCompletion(remove);
+            emitter.onTimeout(remove);
+            emitter.onError(error -> remove.run());
+            return emitter;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.events.coalesce-ms:250}")
+    public void flush() {
+        for (Iterator<Long> users = changedUsers.iterator(); users.hasNext(); ) {
+            Long userId = users.next();
+            users.remove();
+            UserStream stream = streams.get(userId);
+            if (stream != null) {
+                flush(userId, stream);
+            }
+        }
+        closeIdleStreams();
+    }
+
+    private void flush(Long userId, UserStream stream) {
+        Map<Long, InventoryEventDto.Type> changes;
+        boolean reset;
+        stream.lock.lock();
+        try {
+            changes = new HashMap<>(stream.pending);
+            reset = stream.resetPending;
+            stream.pending.clear();
+            stream.resetPending = false;
+        } finally {
+            stream.lock.unlock();
+        }
+
+        List<InventoryEventDto> events = new ArrayList<>();
+        if (reset) {
+            events.add(new InventoryEventDto(InventoryEventDto.Type.RESET, null, null));
+        } else if (!changes.isEmpty()) {
+            // Current state of every changed product in one query, outside the lock
+            Map<Long, Product> products = productRepository.findByUserIdAndIdIn(userId, changes.keySet()).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            changes.forEach((productId, type) -> {
+                Product product = products.get(productId);
+                events.add(product == null
+                        ? new InventoryEventDto(InventoryEventDto.Type.DELETED, productId, null)
+                        : new InventoryEventDto(type, productId, ProductDto.fromEntity(product)));
+            });
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // Sent outside the lock, so a slow client does not hold up record() on request threads.
+        // A client subscribing meanwhile replays the new events from recent instead.
+        List<Event> sent = new ArrayList<>(events.size());
+        List<SseEmitter> emitters;
+        stream.lock.lock();
+        try {
+            for (InventoryEventDto data : events) {
+                Event event = new Event(nextEventId(), data);
+                sent.add(event);
+                stream.recent.addLast(event);
+                if (stream.recent.size() > replaySize) {
+                    stream.resumableFrom = stream.recent.removeFirst().id();
+                }
+            }
+            emitters = List.copyOf(stream.emitters);
+        } finally {
+            stream.lock.unlock();
+        }
+
+        List<SseEmitter> gone = new ArrayList<>();
+        for (SseEmitter emitter : emitters) {
+            try {
+                for (Event event : sent) {
+                    send(emitter, event);
+                }
+            } catch (IOException e) {
+                // The client went away
+                gone.add(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+        if (gone.isEmpty()) {
+            return;
+        }
+        stream.lock.lock();
+        try {
+            if (stream.emitters.removeAll(gone) && stream.emitters.isEmpty()) {
+                stream.idleSince = System.nanoTime();
+            }
+        } finally {
+            stream.lock.unlock();
+        }
+    }
+
+    private void closeIdleStreams() {
+        long now = System.nanoTime();
+        for (Map.Entry<Long, UserStream> entry : streams.entrySet()) {
+            UserStream stream = entry.getValue();
+            stream.lock.lock();
+            try {
+                if (stream.emitters.isEmpty() && now - stream.idleSince > retentionNanos) {
+                    stream.closed = true;
+                    streams.remove(entry.getKey(), stream);
+                }
+            } finally {
+                stream.lock.unlock();
+            }
+        }
+    }
+
+    private void record(Long userId, Consumer<UserStream> change) {
+        UserStream stream = streams.get(userId);
+        if (stream == null) {
+            return;
+        }
+        stream.lock.lock();
+        try {
+            if (stream.closed) {
+                return;
+            }
+            change.accept(stream);
+        } finally {
+            stream.lock.unlock();
+        }
+        changedUsers.add(userId);
+    }
+
+    private long nextEventId() {
+        return lastEventId.incrementAndGet();
+    }
+
+    private static void send(SseEmitter emitter, Event event) throws IOException {
+        emitter.send(SseEmitter.event().id(Long.toString(event.id())).name("inventory").data(event.data()));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package org.example.shopyapi.service;
 
 import org.example.shopyapi.dto.CreateProductRequestDto;
+import org.example.shopyapi.dto.InventoryEventDto;
+import org.example.shopyapi.dto.ProductDto;
 import org.example.shopyapi.dto.UpdateProductRequestDto;
 import org.example.shopyapi.model.Point;
 import org.example.shopyapi.model.Product;
+import org.example.shopyapi.model.ProductId;
 import org.example.shopyapi.model.User;
 import org.example.shopyapi.repository.ProductRepository;
 import org.example.shopyapi.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Collection;
 import java.util.List;
@@ -18,11 +24,19 @@ import java.util.Optional;
 public class InventoryService {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ProductIdAllocator productIdAllocator;
+    private final InventoryEventService inventoryEventService;
+    private final ProductCache productCache;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public InventoryService(ProductRepository productRepository, UserRepository userRepository) {
+    public InventoryService(ProductRepository productRepository, UserRepository userRepository, ProductIdAllocator productIdAllocator, InventoryEventService inventoryEventService, ProductCache productCache, PlatformTransactionManager transactionManager) {
         this.productRepository = productRepository;
         this.userRepository = userRepository;
+        this.productIdAllocator = productIdAllocator;
+        this.inventoryEventService = inventoryEventService;
+        this.productCache = productCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public Product createProduct(CreateProductRequestDto productDto, String userEmail) {
@@ -40,8 +54,18 @@ public class InventoryService {
                 && productByName.get().getLocation().equals(productDto.location())) {
             Product existing = productByName.get();
             if (Double.compare(existing.getPrice(), productDto.price()) == 0) {
-                existing.addStock(productDto.quantity());
-                return productRepository.save(existing);
+                // One UPDATE adding to the stored quantity, concurrent restocks cannot overwrite each other.
+                // The quantity is read back with a scalar query, existing may be held by the request's persistence context.
+                Integer quantity = transactionTemplate.execute(status -> {
+                    addStock(existing.getId(), user.getId(), productDto.quantity());
+                    return productRepository.findQuantity(existing.getId(), user.getId()).orElse(null);
+                });
+                if (quantity == null) {
+                    throw new IllegalStateException("Product with name '" + productDto.name() + "' was deleted while restocking.");
+                }
+                Product restocked = new Product(existing.getId(), existing.getName(), existing.getPrice(), quantity, existing.getLocation());
+                restocked.setUser(user);
+                return restocked;
             } else {
                 throw new IllegalStateException("Product with name '" + productDto.name() + "' at location " + productDto.location() + " already exists but with a different price.");
             }
@@ -59,7 +83,7 @@ public class InventoryService {
             );
         }
 
-        Long nextId = getNextProductIdForUser(user);
+        Long nextId = productIdAllocator.nextId(user.getId());
 
         Product product = new Product(
                 nextId,
@@ -70,52 +94,51 @@ public class InventoryService {
         );
         product.setUser(user);
 
-        return productRepository.save(product);
-    }
-
-    private Long getNextProductIdForUser(User user) {
-        List<Product> userProducts = productRepository.findByUser(user);
-        if (userProducts.isEmpty()) {
-            return 1L;
-        }
-        
-        Long maxId = userProducts.stream()
-                .mapToLong(Product::getId)
-                .max()
-                .orElse(0L);
-        
-        return maxId + 1;
+        Product saved = productRepository.save(product);
+        productCache.evict(user.getId(), saved.getId());
+        inventoryEventService.productChanged(user.getId(), saved.getId(), InventoryEventDto.Type.CREATED);
+        return saved;
     }
 
     public Collection<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
-    public Collection<Product> getProductsByUser(String userEmail) {
+    public List<ProductDto> getProductsByUser(String userEmail) {
         Optional<User> userOpt = userRepository.findByEmail(userEmail);
         if (userOpt.isEmpty()) {
             return List.of();
         }
-        return productRepository.findByUser(userOpt.get());
+        return getProductsByUser(userOpt.get().getId());
     }
 
-    public Optional<Product> findById(Long id) {
-        return productRepository.findById(id);
+    // Reads below are served from ProductCache, writes evict what they change.
+    // Product ids are only unique per user, the owner is part of the primary key.
+    public Optional<ProductDto> findByIdAndUser(Long id, Long userId) {
+        return productCache.findById(userId, id, () -> loadProduct(id, userId));
     }
 
-    public Optional<Product> findByIdAndUser(Long id, String userEmail) {
-        Optional<User> userOpt = userRepository.findByEmail(userEmail);
-        if (userOpt.isEmpty()) {
-            return Optional.empty();
-        }
-        return productRepository.findById(id)
-                .filter(product -> product.getUser() != null && product.getUser().getId().equals(userOpt.get().getId()));
+    public List<ProductDto> getProductsByUser(Long userId) {
+        return productCache.products(userId, () -> productRepository.findByUserId(userId).stream()
+                .map(ProductDto::fromEntity)
+                .toList());
+    }
+
+    public Optional<ProductDto> findByNameAndUser(String name, Long userId) {
+        return productCache.findByName(userId, name,
+                () -> productRepository.findByNameAndUserId(name, userId).map(ProductDto::fromEntity),
+                id -> loadProduct(id, userId));
+    }
+
+    private Optional<ProductDto> loadProduct(Long id, Long userId) {
+        return productRepository.findById(new ProductId(userId, id)).map(ProductDto::fromEntity);
     }
 
     public Optional<Product> findByName(String name) {
         return productRepository.findByName(name);
     }
 
+    // The entity, read from the database, for changes to the product
     public Optional<Product> findByNameAndUser(String name, User user) {
         return productRepository.findByNameAndUser(name, user);
     }
@@ -125,69 +148,61 @@ public class InventoryService {
     }
 
     public Optional<Product> findByLocationAndUser(Point location, User user) {
-        return productRepository.findByLocation(location)
-                .filter(product -> product.getUser() != null && product.getUser().getId().equals(user.getId()));
+        return productRepository.findByLocationAndUserId(location, user.getId());
     }
 
-    public Optional<Product> updateProduct(Long id, UpdateProductRequestDto dto) {
-        return findById(id).map(product -> {
+    public Optional<Product> updateProduct(Long id, UpdateProductRequestDto dto, Long userId) {
+        return productRepository.findById(new ProductId(userId, id)).map(product -> {
             product.updateFromDto(dto);
-            return productRepository.save(product);
+            Product saved = productRepository.save(product);
+            productCache.evict(userId, id);
+            inventoryEventService.productChanged(userId, id, InventoryEventDto.Type.UPDATED);
+            return saved;
         });
     }
 
-    public Optional<Product> updateProduct(Long id, UpdateProductRequestDto dto, String userEmail) {
-        return findByIdAndUser(id, userEmail).map(product -> {
-            product.updateFromDto(dto);
-            return productRepository.save(product);
-        });
-    }
-
-    public boolean deleteProduct(Long id) {
-        if (productRepository.existsById(id)) {
-            productRepository.deleteById(id);
-            return true;
-        }
-        return false;
-    }
-
-    public boolean deleteProduct(Long id, String userEmail) {
-        Optional<User> userOpt = userRepository.findByEmail(userEmail);
-        if (userOpt.isEmpty()) {
+    @Transactional
+    public boolean deleteProduct(Long id, Long userId) {
+        if (productRepository.deleteByIdAndUserId(id, userId) == 0) {
             return false;
         }
-        
-        Optional<Product> productOpt = productRepository.findById(id)
-                .filter(product -> product.getUser() != null && product.getUser().getId().equals(userOpt.get().getId()));
-        
-        if (productOpt.isPresent()) {
-            productRepository.deleteById(id);
-            return true;
-        }
-        return false;
+        productCache.evict(userId, id);
+        inventoryEventService.productChanged(userId, id, InventoryEventDto.Type.DELETED);
+        return true;
     }
 
-    public void reduceStock(Long id, int quantityToReduce) {
+    // Stock changes are single conditional UPDATE statements, so concurrent orders cannot oversell
+    @Transactional
+    public void reduceStock(Long id, Long userId, int quantityToReduce) {
         if (id == null) {
             throw new IllegalArgumentException("ID cannot be null");
         }
-        Optional<Product> productOpt = findById(id);
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-            product.reduceStock(quantityToReduce);
-            productRepository.save(product);
+        if (quantityToReduce <= 0) {
+            throw new IllegalArgumentException("Quantity to reduce must be positive");
         }
+        if (productRepository.decreaseStock(id, userId, quantityToReduce) == 0) {
+            if (productRepository.existsById(new ProductId(userId, id))) {
+                throw new IllegalStateException(
+                    String.format("Cannot reduce stock by %d: not enough available", quantityToReduce)
+                );
+            }
+            return;
+        }
+        productCache.evict(userId, id);
+        inventoryEventService.productChanged(userId, id, InventoryEventDto.Type.STOCK_CHANGED);
     }
 
-    public void addStock(Long id, int quantityToAdd) {
+    @Transactional
+    public void addStock(Long id, Long userId, int quantityToAdd) {
         if (id == null) {
             throw new IllegalArgumentException("ID cannot be null");
         }
-        Optional<Product> productOpt = findById(id);
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-            product.addStock(quantityToAdd);
-            productRepository.save(product);
+        if (quantityToAdd <= 0) {
+            throw new IllegalArgumentException("Quantity to add must be positive");
+        }
+        if (productRepository.increaseStock(id, userId, quantityToAdd) > 0) {
+            productCache.evict(userId, id);
+            inventoryEventService.productChanged(userId, id, InventoryEventDto.Type.STOCK_CHANGED);
         }
     }
 }
@@ -1,36 +1,99 @@
 package org.example.shopyapi.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.example.shopyapi.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
+    private static final Logger log = LoggerFactory.getLogger(JwtService.class);
+    private static final String ISSUED_AT_MILLIS = "iatMs";
     private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
-    
+
+    // The key and the parser are immutable and thread-safe, so they are built once
+    private final Key signingKey = Keys.hmacShaKeyFor(java.util.Base64.getDecoder().decode(SECRET_KEY));
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    // Claims of tokens whose signature was already checked, keyed by the SHA-256 of the token
+    // so raw tokens are not kept in memory. Every entry is evicted when its token expires.
+    private final Cache<ByteBuffer, Claims> verifiedTokens;
+
+    public JwtService(@Value("${app.jwt.verified-token-cache-size:10000}") long verifiedTokenCacheSize) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheSize)
+                .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    // Checks signature and expiry and returns the claims, throws JwtException for an invalid token.
+    // A token seen before is answered from the cache without verifying the signature again.
+    public Claims verifyToken(String token) {
+        ByteBuffer key = tokenHash(token);
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims != null) {
+            return claims;
+        }
+
+        claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() == null) {
+            throw new JwtException("Token has no expiration");
+        }
+        verifiedTokens.put(key, claims);
+        return claims;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
-    
+
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verifyToken(token));
     }
-    
+
     public String generateToken(User user) {
         return generateToken(new HashMap<>(), user);
     }
-    
+
     public String generateToken(Map<String, Object> extraClaims, User user) {
+        long now = System.currentTimeMillis();
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
@@ -40,43 +103,42 @@ public class JwtService {
                 .claim("email", user.getEmail())
                 .claim("telephone", user.getTelephone())
                 .claim("address", user.getAddress())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 24)) // 24 hours
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .claim(ISSUED_AT_MILLIS, now)
+                .setExpiration(new Date(now + 1000 * 60 * 24)) // 24 hours
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-    
+
+    // The standard iat claim only has second precision. Tokens issued before the millisecond
+    // claim was added fall back to it, and to 0 without any issue time.
+    public static long issuedAtMillis(Claims claims) {
+        Long millis = claims.get(ISSUED_AT_MILLIS, Long.class);
+        if (millis != null) {
+            return millis;
+        }
+        return claims.getIssuedAt() == null ? 0 : claims.getIssuedAt().getTime();
+    }
+
     public boolean isTokenValid(String token, String userEmail) {
         try {
-            final String username = extractUsername(token);
-            boolean isValid = (username.equals(userEmail)) && !isTokenExpired(token);
-            System.out.println("Token validation - Username: " + username + ", Expected: " + userEmail + ", Valid: " + isValid);
-            return isValid;
-        } catch (Exception e) {
-            System.err.println("Token validation error: " + e.getMessage());
+            Claims claims = verifyToken(token);
+            return claims.getSubject().equals(userEmail) && !claims.getExpiration().before(new Date());
+        } catch (ExpiredJwtException e) {
+            return false;
+        } catch (JwtException | IllegalArgumentException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Token validation error: {}", e.getMessage());
+            }
             return false;
         }
     }
-    
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-    
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-    
-    private Key getSignInKey() {
-        byte[] keyBytes = java.util.Base64.getDecoder().decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+
+    private ByteBuffer tokenHash(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-} 
\ No newline at end of file
+}
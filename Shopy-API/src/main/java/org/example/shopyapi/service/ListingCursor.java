@@ -0,0 +1,25 @@
+package org.example.shopyapi.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Keyset cursor handed to clients as an opaque token: the sort order it belongs to and the
+// sort key of the last row on the page. name is only set for listings sorted by name.
+record ListingCursor(String sort, long id, String name) {
+    static String encode(String sort, long id, String name) {
+        String value = name == null ? sort + ":" + id : sort + ":" + id + ":" + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ListingCursor decode(String token, String expectedSort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 3);
+            if (!parts[0].equals(expectedSort) || parts.length < 2) {
+                throw new IllegalArgumentException("Cursor does not belong to sort '" + expectedSort + "'");
+            }
+            return new ListingCursor(parts[0], Long.parseLong(parts[1]), parts.length == 3 ? parts[2] : null);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.shopyapi.service;
+
+import jakarta.persistence.EntityManager;
+import org.example.shopyapi.model.ArchivedOrder;
+import org.example.shopyapi.model.Order;
+import org.example.shopyapi.model.OrderStatus;
+import org.example.shopyapi.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Moves finished orders older than app.orders.archive.after-days from orders, order_item and the route
+// table into order_archive, batch-size orders per transaction, so the hot tables only hold recent orders.
+// Orders without created_at were placed before the column existed and are archived on the first run.
+// When order_archive is a partitioned PostgreSQL table (see V11) the monthly partition an order belongs to
+// is created before the order is moved; old months can then be detached or dropped as a whole.
+@Service
+public class OrderArchiveService {
+    private static final Set<OrderStatus> FINISHED = EnumSet.of(OrderStatus.SUCCESS, OrderStatus.FAIL);
+
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration archiveAfter;
+    private final int batchSize;
+
+    // One run at a time; a lock rather than synchronized so a run on a virtual thread does not pin its carrier
+    private final ReentrantLock running = new ReentrantLock();
+
+    // Decided on the first run, null until then
+    private volatile Boolean partitioned;
+
+    public OrderArchiveService(OrderRepository orderRepository,
+                               EntityManager entityManager,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.orders.archive.enabled:true}") boolean enabled,
+                               @Value("${app.orders.archive.after-days:90}") int afterDays,
+                               @Value("${app.orders.archive.batch-size:500}") int batchSize) {
+        if (afterDays < 0 || batchSize < 1) {
+            throw new IllegalArgumentException("Archive age must not be negative and batch size must be at least 1");
+        }
+        this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.archiveAfter = Duration.ofDays(afterDays);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${app.orders.archive.interval-ms:3600000}",
+            fixedDelayString = "${app.orders.archive.interval-ms:3600000}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveOrders();
+        }
+    }
+
+    // Returns the number of orders moved
+    public int archiveOrders() {
+        running.lock();
+        try {
+            Instant cutoff = Instant.now().minus(archiveAfter);
+            int total = 0;
+            int moved;
+            do {
+                moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+                total += moved;
+            } while (moved == batchSize);
+            return total;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private int archiveBatch(Instant cutoff) {
+        List<Order> orders = orderRepository.findArchivable(cutoff, FINISHED, PageRequest.of(0, batchSize));
+        if (orders.isEmpty()) {
+            return 0;
+        }
+
+        if (isPartitioned()) {
+            Set<YearMonth> months = new TreeSet<>();
+            for (Order order : orders) {
+                Instant createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : ArchivedOrder.UNKNOWN_CREATED_AT;
+                months.add(YearMonth.from(createdAt.atOffset(ZoneOffset.UTC)));
+            }
+            months.forEach(this::createPartition);
+        }
+
+        Instant archivedAt = Instant.now();
+        // persist rather than save: the ids are assigned, save would first look every one of them up
+        for (Order order : orders) {
+            entityManager.persist(new ArchivedOrder(order, archivedAt));
+        }
+        orderRepository.deleteAll(orders);
+        return orders.size();
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            String database = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            partitioned = "PostgreSQL".equals(database) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "select exists (select 1 from pg_partitioned_table where partrelid = to_regclass('order_archive'))",
+                    Boolean.class));
+        }
+        return partitioned;
+    }
+
+    // Part of the batch transaction, a partition created for a batch that rolls back disappears with it
+    private void createPartition(YearMonth month) {
+        Instant from = month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant to = month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        jdbcTemplate.execute(String.format("create table if not exists order_archive_y%04dm%02d partition of order_archive"
+                + " for values from ('%s') to ('%s')", month.getYear(), month.getMonthValue(), from, to));
+    }
+}
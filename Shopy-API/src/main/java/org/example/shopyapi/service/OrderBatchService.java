@@ -0,0 +1,260 @@
+package org.example.shopyapi.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.shopyapi.dto.PlaceOrderRequestDto;
+import org.example.shopyapi.model.OrderResult;
+import org.example.shopyapi.model.Point;
+import org.example.shopyapi.service.OrderService.StockReservation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Accumulates orders for a short window and picks them in shared tours.
+// A window closes when max-orders orders are waiting or max-wait-ms has passed since the first one.
+// The orders of a window are split by user, grouped by shelf proximity with a seed algorithm,
+// and every group is routed as one tour through RoutingService.
+@Service
+public class OrderBatchService {
+    private final OrderService orderService;
+    private final RoutingService routingService;
+    private final int maxOrders;
+    private final long maxWaitMillis;
+    private final int ordersPerTour;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-batch-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private List<PendingOrder> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    private record PendingOrder(PlaceOrderRequestDto request, String userEmail, CompletableFuture<OrderResult> result) { }
+
+    public OrderBatchService(OrderService orderService,
+                             RoutingService routingService,
+                             @Value("${app.orders.batch.max-orders:10}") int maxOrders,
+                             @Value("${app.orders.batch.max-wait-ms:1000}") long maxWaitMillis,
+                             @Value("${app.orders.batch.orders-per-tour:4}") int ordersPerTour) {
+        if (maxOrders < 1 || ordersPerTour < 1) {
+            throw new IllegalArgumentException("Batch and tour sizes must be at least 1");
+        }
+        this.orderService = orderService;
+        this.routingService = routingService;
+        this.maxOrders = maxOrders;
+        this.maxWaitMillis = maxWaitMillis;
+        this.ordersPerTour = ordersPerTour;
+    }
+
+    // Blocks until the window containing this order has been processed.
+    public OrderResult placeOrder(PlaceOrderRequestDto requestDto, String userEmail) {
+        try {
+            return submit(requestDto, userEmail).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<OrderResult> submit(PlaceOrderRequestDto requestDto, String userEmail) {
+        PendingOrder order = new PendingOrder(requestDto, userEmail, new CompletableFuture<>());
+        List<PendingOrder> fullWindow = null;
+
+        lock.lock();
+        try {
+            pending.add(order);
+            if (pending.size() >= maxOrders) {
+                fullWindow = drain();
+            } else if (pending.size() == 1) {
+                scheduledFlush = scheduler.schedule(this::flush, maxWaitMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // A full window is processed on the thread of the order that filled it
+        if (fullWindow != null) {
+            processWindow(fullWindow);
+        }
+        return order.result();
+    }
+
+    public void flush() {
+        List<PendingOrder> window;
+        lock.lock();
+        try {
+            window = drain();
+        } finally {
+            lock.unlock();
+        }
+        processWindow(window);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    private List<PendingOrder> drain() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<PendingOrder> window = pending;
+        pending = new ArrayList<>();
+        return window;
+    }
+
+    private void processWindow(List<PendingOrder> window) {
+        if (window.isEmpty()) {
+            return;
+        }
+
+        List<PendingOrder> reservedOrders = new ArrayList<>();
+        List<StockReservation> reservations = new ArrayList<>();
+        for (PendingOrder order : window) {
+            try {
+                StockReservation reservation = orderService.reserveStock(order.request(), order.userEmail());
+                if (reservation.failure() != null) {
+                    order.result().complete(reservation.failure());
+                } else {
+                    reservedOrders.add(order);
+                    reservations.add(reservation);
+                }
+            } catch (RuntimeException e) {
+                order.result().completeExceptionally(e);
+            }
+        }
+
+        for (List<Integer> tour : clusterByUser(reservations)) {
+            List<StockReservation> tourReservations = new ArrayList<>(tour.size());
+            Set<Point> stops = new LinkedHashSet<>();
+            for (int index : tour) {
+                tourReservations.add(reservations.get(index));
+                stops.addAll(reservations.get(index).locations());
+            }
+
+            try {
+                List<Point> route = routingService.calculateOptimalRoute(new ArrayList<>(stops));
+                List<OrderResult> results = orderService.saveBatchedOrders(tourReservations, route);
+                for (int i = 0; i < tour.size(); i++) {
+                    reservedOrders.get(tour.get(i)).result().complete(results.get(i));
+                }
+            } catch (RuntimeException e) {
+                // Every reservation was committed on its own, none of the tour's orders was saved
+                for (StockReservation reservation : tourReservations) {
+                    try {
+                        orderService.releaseStock(reservation);
+                    } catch (RuntimeException releaseError) {
+                        e.addSuppressed(releaseError);
+                    }
+                }
+                for (int index : tour) {
+                    reservedOrders.get(index).result().completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    // Product locations belong to one user's shelf space, so a tour never mixes users:
+    // the orders of each user are clustered on their own. Returns indexes into reservations.
+    private List<List<Integer>> clusterByUser(List<StockReservation> reservations) {
+        Map<Long, List<Integer>> ordersByUser = new LinkedHashMap<>();
+        for (int i = 0; i < reservations.size(); i++) {
+            ordersByUser.computeIfAbsent(reservations.get(i).user().getId(), userId -> new ArrayList<>()).add(i);
+        }
+
+        List<List<Integer>> tours = new ArrayList<>();
+        for (List<Integer> userOrders : ordersByUser.values()) {
+            List<StockReservation> userReservations = userOrders.stream().map(reservations::get).toList();
+            for (List<Integer> tour : clusterByProximity(userReservations)) {
+                tours.add(tour.stream().map(userOrders::get).toList());
+            }
+        }
+        return tours;
+    }
+
+    // Seed algorithm: start each tour with the order whose shelves lie farthest from the depot,
+    // then keep adding the order closest to the tour's centre until the tour is full.
+    private List<List<Integer>> clusterByProximity(List<StockReservation> reservations) {
+        int count = reservations.size();
+        double[] centreX = new double[count];
+        double[] centreY = new double[count];
+        int[] stopCount = new int[count];
+        for (int i = 0; i < count; i++) {
+            for (Point location : reservations.get(i).locations()) {
+                centreX[i] += location.getX();
+                centreY[i] += location.getY();
+            }
+            stopCount[i] = reservations.get(i).locations().size();
+            if (stopCount[i] > 0) {
+                centreX[i] /= stopCount[i];
+                centreY[i] /= stopCount[i];
+            }
+        }
+
+        boolean[] assigned = new boolean[count];
+        List<List<Integer>> tours = new ArrayList<>();
+        for (int remaining = count; remaining > 0; ) {
+            int seed = -1;
+            double seedDistance = -1;
+            for (int i = 0; i < count; i++) {
+                double depotDistance = Math.abs(centreX[i]) + Math.abs(centreY[i]);
+                if (!assigned[i] && depotDistance > seedDistance) {
+                    seed = i;
+                    seedDistance = depotDistance;
+                }
+            }
+
+            List<Integer> tour = new ArrayList<>(ordersPerTour);
+            tour.add(seed);
+            assigned[seed] = true;
+            remaining--;
+            double sumX = centreX[seed] * stopCount[seed];
+            double sumY = centreY[seed] * stopCount[seed];
+            int stops = stopCount[seed];
+
+            while (tour.size() < ordersPerTour && remaining > 0) {
+                double tourX = stops > 0 ? sumX / stops : 0;
+                double tourY = stops > 0 ? sumY / stops : 0;
+                int nearest = -1;
+                double nearestDistance = Double.MAX_VALUE;
+                for (int i = 0; i < count; i++) {
+                    if (assigned[i]) {
+                        continue;
+                    }
+                    double distance = Math.abs(centreX[i] - tourX) + Math.abs(centreY[i] - tourY);
+                    if (distance < nearestDistance) {
+                        nearestDistance = distance;
+                        nearest = i;
+                    }
+                }
+                tour.add(nearest);
+                assigned[nearest] = true;
+                remaining--;
+                sumX += centreX[nearest] * stopCount[nearest];
+                sumY += centreY[nearest] * stopCount[nearest];
+                stops += stopCount[nearest];
+            }
+            tours.add(tour);
+        }
+        return tours;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.shopyapi.service;
+
+import org.example.shopyapi.dto.OrderListRequestDto;
+import org.example.shopyapi.dto.OrderStatusDto;
+import org.example.shopyapi.dto.PageDto;
+import org.example.shopyapi.model.ArchivedOrder;
+import org.example.shopyapi.model.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Keyset pagination over the orders of one user, newest first. Order ids grow with creation time,
+// so a page continues below the id of the previous page's last row on the (user_id, id) index.
+// Archived orders are listed from order_archive after the ones still in orders.
+@Service
+public class OrderListingService {
+    private static final String SORT = "newest";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int streamFetchSize;
+
+    private record Query(String sql, List<Object> args) { }
+
+    public OrderListingService(JdbcTemplate jdbcTemplate,
+                               @Value("${app.listing.default-page-size:100}") int defaultPageSize,
+                               @Value("${app.listing.max-page-size:1000}") int maxPageSize,
+                               @Value("${app.listing.stream-fetch-size:500}") int streamFetchSize) {
+        if (defaultPageSize < 1 || maxPageSize < defaultPageSize || streamFetchSize < 1) {
+            throw new IllegalArgumentException("Listing page and fetch sizes must be at least 1, max >= default");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    public PageDto<OrderStatusDto> listPage(Long userId, OrderListRequestDto request) {
+        int pageSize = request.limit() == null ? defaultPageSize : request.limit();
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+
+        // One extra row tells whether there is a next page
+        Query query = buildQuery(userId, request, pageSize + 1);
+        List<OrderStatusDto> orders = jdbcTemplate.query(query.sql(), (resultSet, rowNum) -> toDto(resultSet),
+                query.args().toArray());
+        if (orders.size() <= pageSize) {
+            return new PageDto<>(orders, null);
+        }
+        orders = orders.subList(0, pageSize);
+        return new PageDto<>(orders, ListingCursor.encode(SORT, orders.get(pageSize - 1).id(), null));
+    }
+
+    // Same as ProductListingService.stream, rows are fetched in chunks inside a read-only transaction
+    @Transactional(readOnly = true)
+    public void stream(Long userId, OrderListRequestDto request, Consumer<OrderStatusDto> consumer) {
+        if (request.limit() != null && request.limit() < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        Query query = buildQuery(userId, request, request.limit());
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(query.sql());
+            new ArgumentPreparedStatementSetter(query.args().toArray()).setValues(statement);
+            statement.setFetchSize(streamFetchSize);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(toDto(resultSet)));
+    }
+
+    private static Query buildQuery(Long userId, OrderListRequestDto request, Integer limit) {
+        List<Object> args = new ArrayList<>();
+        String sql = selectFrom("orders", userId, request, args)
+                + " union all " + selectFrom("order_archive", userId, request, args)
+                + " order by id desc";
+        if (limit != null) {
+            sql += " limit ?";
+            args.add(limit);
+        }
+        return new Query(sql, args);
+    }
+
+    private static String selectFrom(String table, Long userId, OrderListRequestDto request, List<Object> args) {
+        StringBuilder sql = new StringBuilder("select id, status, created_at from ").append(table).append(" where user_id = ?");
+        args.add(userId);
+
+        if (request.status() != null) {
+            sql.append(" and status = ?");
+            args.add(request.status().name());
+        }
+        if (request.from() != null) {
+            sql.append(" and created_at >= ?");
+            args.add(Timestamp.from(request.from()));
+        }
+        if (request.to() != null) {
+            sql.append(" and created_at < ?");
+            args.add(Timestamp.from(request.to()));
+            if (table.equals("order_archive")) {
+                // Unknown creation times match no date range, as NULL does in orders
+                sql.append(" and created_at > ?");
+                args.add(Timestamp.from(ArchivedOrder.UNKNOWN_CREATED_AT));
+            }
+        }
+        if (request.cursor() != null) {
+            sql.append(" and id < ?");
+            args.add(ListingCursor.decode(request.cursor(), SORT).id());
+        }
+        return sql.toString();
+    }
+
+    private static OrderStatusDto toDto(ResultSet resultSet) throws SQLException {
+        Timestamp createdAt = resultSet.getTimestamp(3);
+        return new OrderStatusDto(resultSet.getLong(1), OrderStatus.valueOf(resultSet.getString(2)),
+                createdAt != null && !createdAt.toInstant().equals(ArchivedOrder.UNKNOWN_CREATED_AT) ? createdAt.toInstant() : null);
+    }
+}
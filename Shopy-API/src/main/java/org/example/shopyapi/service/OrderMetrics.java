@@ -0,0 +1,70 @@
+package org.example.shopyapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Meters of the order hot path, published under shopy.orders.*.
+// Every meter is registered up front, so recording looks nothing up and allocates nothing.
+@Component
+public class OrderMetrics {
+    public enum Phase {
+        // Reading the ordered products and comparing their stock
+        STOCK_CHECK("stock-check"),
+        // Taking the stock with conditional updates
+        FULFIL("fulfil"),
+        ROUTE("route"),
+        PERSIST("persist");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Timer[] phases = new Timer[Phase.values().length];
+    private final Counter productNotFound;
+    private final Counter insufficientStock;
+    private final Counter processingError;
+
+    public OrderMetrics(MeterRegistry meterRegistry) {
+        for (Phase phase : Phase.values()) {
+            phases[phase.ordinal()] = Timer.builder("shopy.orders.phase")
+                    .description("Time spent in one phase of placing an order")
+                    .tag("phase", phase.tag)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(100_000))
+                    .maximumExpectedValue(Duration.ofSeconds(5))
+                    .register(meterRegistry);
+        }
+        this.productNotFound = failedCounter(meterRegistry, "product_not_found");
+        this.insufficientStock = failedCounter(meterRegistry, "insufficient_stock");
+        this.processingError = failedCounter(meterRegistry, "processing_error");
+    }
+
+    private static Counter failedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("shopy.orders.failed")
+                .description("Orders saved as FAIL")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // startNanos is the System.nanoTime() at which the phase began
+    public void recordPhase(Phase phase, long startNanos) {
+        phases[phase.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void orderFailed(StockReservationService.Failure reason) {
+        (reason == StockReservationService.Failure.PRODUCT_NOT_FOUND ? productNotFound : insufficientStock).increment();
+    }
+
+    // For orders that could not be processed at all
+    public void orderFailedWithError() {
+        processingError.increment();
+    }
+}
@@ -3,36 +3,85 @@ package org.example.shopyapi.service;
 import org.example.shopyapi.dto.OrderItemDto;
 import org.example.shopyapi.dto.PlaceOrderRequestDto;
 import org.example.shopyapi.model.*;
+import org.example.shopyapi.repository.ArchivedOrderRepository;
+import org.example.shopyapi.repository.OrderOutboxRepository;
 import org.example.shopyapi.repository.OrderRepository;
-import org.example.shopyapi.repository.OrderItemRepository;
+import org.example.shopyapi.repository.PickTourRepository;
 import org.example.shopyapi.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
     private final OrderRepository orderRepository;
-    private final OrderItemRepository orderItemRepository;
-    private final InventoryService inventoryService;
+    private final StockReservationService stockReservationService;
     private final RoutingService routingService;
     private final UserRepository userRepository;
+    private final PickTourRepository pickTourRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final OrderMetrics orderMetrics;
 
     @Autowired
-    public OrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository, InventoryService inventoryService, RoutingService routingService, UserRepository userRepository) {
+    public OrderService(OrderRepository orderRepository, StockReservationService stockReservationService, RoutingService routingService, UserRepository userRepository, PickTourRepository pickTourRepository, ArchivedOrderRepository archivedOrderRepository, OrderOutboxRepository orderOutboxRepository, OrderMetrics orderMetrics) {
         this.orderRepository = orderRepository;
-        this.orderItemRepository = orderItemRepository;
-        this.inventoryService = inventoryService;
+        this.stockReservationService = stockReservationService;
         this.routingService = routingService;
         this.userRepository = userRepository;
+        this.pickTourRepository = pickTourRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.orderMetrics = orderMetrics;
     }
 
+    // The reservation commits on its own before routing, so the rows of hot products are not locked
+    // while the route is calculated. When routing or the insert fails, the stock is given back.
     public OrderResult processOrder(PlaceOrderRequestDto requestDto, String userEmail) {
+        StockReservation reservation = reserveStock(requestDto, userEmail);
+        if (reservation.failure() != null) {
+            return reservation.failure();
+        }
+
+        try {
+            long start = System.nanoTime();
+            List<Point> route = routingService.calculateOptimalRoute(reservation.locations());
+            orderMetrics.recordPhase(OrderMetrics.Phase.ROUTE, start);
+            String message = "Your order is ready! Please collect it.";
+
+            start = System.nanoTime();
+            Order order = new Order();
+            order.setStatus(OrderStatus.SUCCESS);
+            order.setUser(reservation.user());
+            order.addItems(reservation.items());
+            order.setRoute(route);
+            order = orderRepository.save(order);
+            orderMetrics.recordPhase(OrderMetrics.Phase.PERSIST, start);
+
+            return new OrderResult(order.getId(), order.getStatus(), message, order.getRoute());
+        } catch (RuntimeException e) {
+            try {
+                releaseStock(reservation);
+            } catch (RuntimeException releaseError) {
+                e.addSuppressed(releaseError);
+            }
+            throw e;
+        }
+    }
+
+    // Stock taken for an order whose route has not been calculated yet, reservedQuantities by product id.
+    // When the stock check fails, the failed order is already saved and failure holds its result.
+    public record StockReservation(User user, List<OrderItem> items, List<Point> locations, Map<Long, Integer> reservedQuantities, OrderResult failure) { }
+
+    public StockReservation reserveStock(PlaceOrderRequestDto requestDto, String userEmail) {
         // Find the user
         Optional<User> userOpt = userRepository.findByEmail(userEmail);
         if (userOpt.isEmpty()) {
@@ -40,74 +89,136 @@ public class OrderService {
         }
         User user = userOpt.get();
 
-        List<String> missingItems = checkStock(requestDto);
+        // Lines for the same product are merged so its stock is checked against the total
+        Map<String, Integer> requestedQuantities = new LinkedHashMap<>();
+        for (OrderItemDto item : requestDto.items()) {
+            requestedQuantities.merge(item.productName(), item.quantity(), Integer::sum);
+        }
+        StockReservationService.StockResult stock = stockReservationService.reserveStock(user, requestedQuantities);
 
         List<OrderItem> orderItems = requestDto.items().stream()
                 .map(item -> new OrderItem(item.productName(), item.quantity()))
                 .collect(Collectors.toList());
 
-        Order order;
-        String message;
-
-        if (!missingItems.isEmpty()) {
-            message = "Not enough stock to fulfill your order.";
-            order = new Order();
+        if (!stock.isReserved()) {
+            orderMetrics.orderFailed(stock.failure());
+            String message = "Not enough stock to fulfill your order.";
+            long start = System.nanoTime();
+            Order order = new Order();
             order.setStatus(OrderStatus.FAIL);
             order.setUser(user);
             order.addItems(orderItems);
             order.setRoute(List.of());
             order = orderRepository.save(order);
-            orderItemRepository.saveAll(orderItems);
-            return new OrderResult(order.getId(), order.getStatus(), message, order.getRoute());
+            orderMetrics.recordPhase(OrderMetrics.Phase.PERSIST, start);
+            OrderResult failure = new OrderResult(order.getId(), order.getStatus(), message, order.getRoute());
+            return new StockReservation(user, orderItems, List.of(), Map.of(), failure);
         }
 
-        fulfillOrder(requestDto);
+        return new StockReservation(user, orderItems, stock.locations(), stock.reservedQuantities(), null);
+    }
 
-        List<Point> locationsToVisit = getLocationsForOrder(requestDto);
-        List<Point> route = routingService.calculateOptimalRoute(locationsToVisit);
-        message = "Your order is ready! Please collect it.";
+    // For a reservation whose order is not saved after all
+    public void releaseStock(StockReservation reservation) {
+        stockReservationService.releaseStock(reservation.user(), reservation.reservedQuantities());
+    }
+
+    // Persists one shared picker tour and the batched orders it serves, all or none of them.
+    // Each order keeps its own stops, ordered by when the shared tour reaches them.
+    @Transactional
+    public List<OrderResult> saveBatchedOrders(List<StockReservation> reservations, List<Point> tourRoute) {
+        long start = System.nanoTime();
+        PickTour pickTour = pickTourRepository.save(new PickTour(tourRoute));
+        String message = "Your order is ready! It was picked together with " + (reservations.size() - 1) + " other order(s).";
+
+        List<OrderResult> results = new ArrayList<>(reservations.size());
+        for (StockReservation reservation : reservations) {
+            List<Point> orderStops = tourRoute.stream()
+                    .filter(reservation.locations()::contains)
+                    .distinct()
+                    .collect(Collectors.toList());
+
+            Order order = new Order();
+            order.setStatus(OrderStatus.SUCCESS);
+            order.setUser(reservation.user());
+            order.addItems(reservation.items());
+            order.setRoute(orderStops);
+            order.setPickTour(pickTour);
+            order = orderRepository.save(order);
+
+            results.add(new OrderResult(order.getId(), order.getStatus(), message, order.getRoute()));
+        }
+        orderMetrics.recordPhase(OrderMetrics.Phase.PERSIST, start);
+        return results;
+    }
 
-        order = new Order();
-        order.setStatus(OrderStatus.SUCCESS);
+    // Saves the order as PENDING together with its outbox entry, AsyncOrderService completes it later
+    @Transactional
+    public Order placePendingOrder(PlaceOrderRequestDto requestDto, String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new RuntimeException("User not found: " + userEmail));
+
+        Order order = new Order();
+        order.setStatus(OrderStatus.PENDING);
         order.setUser(user);
-        order.addItems(orderItems);
-        order.setRoute(route);
+        order.addItems(requestDto.items().stream()
+                .map(item -> new OrderItem(item.productName(), item.quantity()))
+                .collect(Collectors.toList()));
         order = orderRepository.save(order);
-        orderItemRepository.saveAll(orderItems);
-
-        return new OrderResult(order.getId(), order.getStatus(), message, order.getRoute());
+        orderOutboxRepository.save(new OrderOutboxEntry(order.getId(), order.getCreatedAt()));
+        return order;
     }
 
-    private List<String> checkStock(PlaceOrderRequestDto requestDto) {
-        List<String> missingItems = new ArrayList<>();
-        for (OrderItemDto item : requestDto.items()) {
-            Optional<Product> productOpt = inventoryService.findByName(item.productName());
-
-            if (productOpt.isEmpty()) {
-                missingItems.add(item.productName() + ": product not found");
-            } else {
-                Product product = productOpt.get();
-                if (product.getQuantity() < item.quantity()) {
-                    missingItems.add(product.getName() + " (requested " + item.quantity() + ", available " + product.getQuantity() + ")");
-                }
-            }
+    // Claims the outbox entry, takes the stock, calculates the route and sets the final status in one
+    // transaction, so a crash at any point leaves the order PENDING with its stock untouched.
+    // Returns empty when the order was already completed.
+    @Transactional
+    public Optional<OrderResult> completePendingOrder(Long orderId) {
+        if (orderOutboxRepository.claim(orderId) == 0) {
+            return Optional.empty();
+        }
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalStateException("Pending order not found: " + orderId));
+
+        Map<String, Integer> requestedQuantities = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            requestedQuantities.merge(item.getProductName(), item.getQuantity(), Integer::sum);
+        }
+        StockReservationService.StockResult stock = stockReservationService.reserveStock(order.getUser(), requestedQuantities);
+
+        String message;
+        if (stock.isReserved()) {
+            long start = System.nanoTime();
+            order.setRoute(routingService.calculateOptimalRoute(stock.locations()));
+            orderMetrics.recordPhase(OrderMetrics.Phase.ROUTE, start);
+            order.setStatus(OrderStatus.SUCCESS);
+            message = "Your order is ready! Please collect it.";
+        } else {
+            orderMetrics.orderFailed(stock.failure());
+            order.setRoute(List.of());
+            order.setStatus(OrderStatus.FAIL);
+            message = "Not enough stock to fulfill your order.";
         }
-        return missingItems;
+        return Optional.of(new OrderResult(order.getId(), order.getStatus(), message, order.getRoute()));
     }
 
-    private void fulfillOrder(PlaceOrderRequestDto requestDto) {
-        for (OrderItemDto item : requestDto.items()) {
-            inventoryService.findByName(item.productName())
-                    .ifPresent(p -> inventoryService.reduceStock(p.getId(), item.quantity()));
+    // For orders that could not be processed, returns empty when the order was already completed
+    @Transactional
+    public Optional<OrderResult> failPendingOrder(Long orderId, String message) {
+        if (orderOutboxRepository.claim(orderId) == 0) {
+            return Optional.empty();
         }
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalStateException("Pending order not found: " + orderId));
+        order.setRoute(List.of());
+        order.setStatus(OrderStatus.FAIL);
+        orderMetrics.orderFailedWithError();
+        return Optional.of(new OrderResult(order.getId(), order.getStatus(), message, order.getRoute()));
     }
 
-    private List<Point> getLocationsForOrder(PlaceOrderRequestDto requestDto) {
-        return requestDto.items().stream()
-                .map(item -> inventoryService.findByName(item.productName()))
-                .flatMap(Optional::stream)
-                .map(Product::getLocation)
-                .distinct()
+    public List<Long> findPendingOrderIds() {
+        return orderOutboxRepository.findAllByOrderByOrderIdAsc().stream()
+                .map(OrderOutboxEntry::getOrderId)
                 .collect(Collectors.toList());
     }
 
@@ -115,13 +226,15 @@ public class OrderService {
         return orderRepository.findById(id);
     }
 
-    public Optional<Order> findByIdAndUser(Long id, String userEmail) {
-        Optional<User> userOpt = userRepository.findByEmail(userEmail);
-        if (userOpt.isEmpty()) {
-            return Optional.empty();
-        }
-        return orderRepository.findById(id)
-                .filter(order -> order.getUser() != null && order.getUser().getId().equals(userOpt.get().getId()));
+    // Ownership is part of the query, owner given by the id of the authenticated user.
+    // Orders moved to the archive by OrderArchiveService are rebuilt from there.
+    public Optional<Order> findByIdAndUser(Long id, Long userId) {
+        return orderRepository.findByIdAndUserId(id, userId)
+                .or(() -> archivedOrderRepository.findByIdAndUserId(id, userId).map(ArchivedOrder::toOrder));
+    }
+
+    public Collection<Order> getOrdersByUser(Long userId) {
+        return orderRepository.findByUserId(userId);
     }
 
     public Collection<Order> getAllProducts() {
@@ -0,0 +1,63 @@
+package org.example.shopyapi.service;
+
+import org.example.shopyapi.dto.OrderStatusDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Server-sent events for clients waiting on a PENDING order. Each subscription receives a single
+// "status" event when the order is completed and is closed after it.
+@Service
+public class OrderStatusNotifier {
+    private final long timeoutMillis;
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public OrderStatusNotifier(@Value("${app.orders.async.sse-timeout-ms:60000}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // Callers must check the order status after subscribing and publish it if the order is no
+    // longer PENDING, otherwise a completion between their check and the subscription is missed.
+    public SseEmitter subscribe(Long orderId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribers.compute(orderId, (id, list) -> {
+            List<SseEmitter> emitters = list == null ? new CopyOnWriteArrayList<>() : list;
+            emitters.add(emitter);
+            return emitters;
+        });
+        Runnable remove = () -> subscribers.computeIfPresent(orderId, (id, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+
+    public boolean hasSubscribers(Long orderId) {
+        return subscribers.containsKey(orderId);
+    }
+
+    public void publish(OrderStatusDto status) {
+        List<SseEmitter> emitters = subscribers.remove(status.id());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("status").data(status));
+                emitter.complete();
+            } catch (IOException e) {
+                // The client went away
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
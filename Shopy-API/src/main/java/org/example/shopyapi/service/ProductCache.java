@@ -0,0 +1,165 @@
+package org.example.shopyapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.shopyapi.dto.PageDto;
+import org.example.shopyapi.dto.ProductDto;
+import org.example.shopyapi.dto.ProductListRequestDto;
+import org.example.shopyapi.model.ProductId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// In-memory product reads in front of PostgreSQL, for this instance only.
+// Products are cached by (userId, id), with an index from (userId, name) to the id; the product
+// list and the listing pages of a user are cached together as one snapshot. The caches use
+// Caffeine's W-TinyLFU eviction bounded by an estimate of the bytes held (app.products.cache.*).
+//
+// Every write to a product evicts it and the snapshot of its owner once the write commits.
+// A read that loaded the old row concurrently cannot put it back afterwards: an eviction waits
+// for a load of the same key, and a page loaded into a snapshot that was evicted meanwhile
+// is dropped with it. Stock is therefore never served stale after a change on this instance.
+// Writes on other instances are not seen here, which is fine while the API runs on one node.
+@Service
+public class ProductCache {
+    // Rough per-entry footprint: cache node, key, ProductDto, Point and the String header
+    private static final int ENTRY_BYTES = 200;
+    private static final int NAME_ENTRY_BYTES = 120;
+
+    private record NameKey(Long userId, String name) { }
+
+    // Cached products and listing pages of one user, weighed by their estimated size
+    private static final class UserSnapshot {
+        private volatile List<ProductDto> products;
+        private final Map<ProductListRequestDto, PageDto<ProductDto>> pages = new ConcurrentHashMap<>();
+        private final AtomicLong bytes = new AtomicLong(ENTRY_BYTES);
+    }
+
+    private final Cache<ProductId, ProductDto> byId;
+    // Names never change, a product that was deleted is simply not found by id any more
+    private final Cache<NameKey, Long> idsByName;
+    private final Cache<Long, UserSnapshot> snapshots;
+    // Snapshot contents are loaded outside of Caffeine, so their load time is measured here
+    private final Timer snapshotLoads;
+
+    public ProductCache(MeterRegistry meterRegistry,
+                        @Value("${app.products.cache.max-bytes:33554432}") long maxBytes,
+                        @Value("${app.products.cache.list-max-bytes:67108864}") long listMaxBytes) {
+        this.byId = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((ProductId key, ProductDto product) -> ENTRY_BYTES + product.name().length())
+                .recordStats()
+                .build();
+        this.idsByName = Caffeine.newBuilder()
+                .maximumWeight(maxBytes / 4)
+                .weigher((NameKey key, Long id) -> NAME_ENTRY_BYTES + key.name().length())
+                .recordStats()
+                .build();
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(listMaxBytes)
+                .weigher((Long userId, UserSnapshot snapshot) -> (int) Math.min(Integer.MAX_VALUE, snapshot.bytes.get()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "products.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByName, "products.idsByName");
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "products.lists");
+        this.snapshotLoads = Timer.builder("cache.snapshot.load")
+                .description("Time to load a product list or listing page into a user's snapshot")
+                .tag("cache", "products.lists")
+                .register(meterRegistry);
+    }
+
+    public Optional<ProductDto> findById(Long userId, Long id, Supplier<Optional<ProductDto>> loader) {
+        // A missing product is not cached, the loader returns null and nothing is stored
+        return Optional.ofNullable(byId.get(new ProductId(userId, id), key -> loader.get().orElse(null)));
+    }
+
+    // idLoader loads a product by id, used when the id of the name is known
+    public Optional<ProductDto> findByName(Long userId, String name, Supplier<Optional<ProductDto>> loader,
+                                           Function<Long, Optional<ProductDto>> idLoader) {
+        NameKey key = new NameKey(userId, name);
+        Long id = idsByName.getIfPresent(key);
+        if (id != null) {
+            Optional<ProductDto> product = findById(userId, id, () -> idLoader.apply(id));
+            if (product.isPresent()) {
+                return product;
+            }
+            idsByName.invalidate(key);
+        }
+        Optional<ProductDto> product = loader.get();
+        product.ifPresent(found -> idsByName.put(key, found.id()));
+        return product;
+    }
+
+    public List<ProductDto> products(Long userId, Supplier<List<ProductDto>> loader) {
+        UserSnapshot snapshot = snapshots.get(userId, id -> new UserSnapshot());
+        List<ProductDto> products = snapshot.products;
+        if (products == null) {
+            products = List.copyOf(snapshotLoads.record(loader));
+            snapshot.products = products;
+            grow(userId, snapshot, (long) products.size() * ENTRY_BYTES);
+        }
+        return products;
+    }
+
+    public PageDto<ProductDto> page(Long userId, ProductListRequestDto request, Supplier<PageDto<ProductDto>> loader) {
+        UserSnapshot snapshot = snapshots.get(userId, id -> new UserSnapshot());
+        PageDto<ProductDto> page = snapshot.pages.get(request);
+        if (page == null) {
+            page = snapshotLoads.record(loader);
+            if (snapshot.pages.putIfAbsent(request, page) == null) {
+                grow(userId, snapshot, (long) (page.items().size() + 1) * ENTRY_BYTES);
+            }
+        }
+        return page;
+    }
+
+    // After a product of the user was created, changed or deleted. Inside a transaction the
+    // entries are evicted when it commits, until then other requests still read the committed state.
+    public void evict(Long userId, Long productId) {
+        afterCommit(() -> {
+            byId.invalidate(new ProductId(userId, productId));
+            snapshots.invalidate(userId);
+        });
+    }
+
+    // After changes to many products of the user at once
+    public void evictUser(Long userId) {
+        afterCommit(() -> {
+            byId.asMap().keySet().removeIf(key -> key.getUserId().equals(userId));
+            snapshots.invalidate(userId);
+        });
+    }
+
+    // Re-inserting the same snapshot makes Caffeine weigh it again; when it was evicted in the
+    // meantime nothing is inserted and the loaded data is dropped with it
+    private void grow(Long userId, UserSnapshot snapshot, long bytes) {
+        snapshot.bytes.addAndGet(bytes);
+        snapshots.asMap().replace(userId, snapshot, snapshot);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
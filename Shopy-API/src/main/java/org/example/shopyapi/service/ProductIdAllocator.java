@@ -0,0 +1,97 @@
+package org.example.shopyapi.service;
+
+import org.example.shopyapi.model.ProductIdSequence;
+import org.example.shopyapi.repository.ProductIdSequenceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Hands out per-user product ids from blocks reserved in the product_id_sequence table.
+// A block is reserved with one locked row update in its own transaction, after that ids
+// come from memory. Ids of a block that is not used up before a restart are skipped.
+@Service
+public class ProductIdAllocator {
+    private final ProductIdSequenceRepository sequenceRepository;
+    private final TransactionTemplate newTransaction;
+    private final int blockSize;
+    private final Map<Long, IdBlock> blocks = new ConcurrentHashMap<>();
+
+    // Ids next until end (exclusive), guarded by lock. Not a synchronized block: reserving a block
+    // runs a query, and a virtual thread blocking inside synchronized pins its carrier thread.
+    private static final class IdBlock {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long next;
+        private long end;
+    }
+
+    public ProductIdAllocator(ProductIdSequenceRepository sequenceRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.products.id-block-size:50}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Product id block size must be at least 1");
+        }
+        this.sequenceRepository = sequenceRepository;
+        this.blockSize = blockSize;
+        // The block must be committed even when the product insert that needed it rolls back
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public long nextId(Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User ID cannot be null");
+        }
+        IdBlock block = blocks.computeIfAbsent(userId, id -> new IdBlock());
+        block.lock.lock();
+        try {
+            if (block.next == block.end) {
+                block.next = reserveBlock(userId, blockSize);
+                block.end = block.next + blockSize;
+            }
+            return block.next++;
+        } finally {
+            block.lock.unlock();
+        }
+    }
+
+    // Reserves count consecutive ids directly from the table, for bulk inserts.
+    // Returns the first of them.
+    public long nextIds(Long userId, int count) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User ID cannot be null");
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("Id count must be at least 1");
+        }
+        return reserveBlock(userId, count);
+    }
+
+    // Returns the first id of a newly reserved block
+    private long reserveBlock(Long userId, int size) {
+        try {
+            return newTransaction.execute(status -> reserveBlockInTransaction(userId, size));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the user's sequence row at the same time, it exists now
+            return newTransaction.execute(status -> reserveBlockInTransaction(userId, size));
+        }
+    }
+
+    private long reserveBlockInTransaction(Long userId, int size) {
+        ProductIdSequence sequence = sequenceRepository.findForUpdate(userId).orElse(null);
+        if (sequence == null) {
+            long first = sequenceRepository.findMaxProductId(userId) + 1;
+            sequenceRepository.saveAndFlush(new ProductIdSequence(userId, first + size));
+            return first;
+        }
+        long first = sequence.getNextId();
+        sequence.setNextId(first + size);
+        return first;
+    }
+}
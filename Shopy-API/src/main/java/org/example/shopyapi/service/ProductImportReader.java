@@ -0,0 +1,143 @@
+package org.example.shopyapi.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.shopyapi.dto.CreateProductRequestDto;
+import org.example.shopyapi.model.Point;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Reads the body of a bulk product import one row at a time, the whole body is never held in memory.
+// A row that cannot be converted is passed on with an error; a body that cannot be parsed at all
+// fails with IllegalArgumentException.
+//
+// JSON: an array of objects shaped like CreateProductRequestDto.
+// CSV: a header line naming the columns name, price, quantity, x and y in any order, then one product per line.
+public final class ProductImportReader {
+    private static final List<String> CSV_COLUMNS = List.of("name", "price", "quantity", "x", "y");
+
+    // Rows are numbered from 1, the CSV header is not counted
+    public record Row(int number, CreateProductRequestDto product, String error) { }
+
+    private ProductImportReader() {}
+
+    public static void readJson(InputStream body, ObjectMapper objectMapper, Consumer<Row> rows) {
+        int number = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of products");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                number++;
+                JsonNode node = objectMapper.readTree(parser);
+                try {
+                    rows.accept(new Row(number, objectMapper.treeToValue(node, CreateProductRequestDto.class), null));
+                } catch (JsonProcessingException e) {
+                    rows.accept(new Row(number, null, "Invalid product: " + e.getOriginalMessage()));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON after row " + number + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static void readCsv(InputStream body, Consumer<Row> rows) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV body is empty");
+            }
+            int[] columns = columnIndexes(splitCsvLine(header));
+
+            int number = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                number++;
+                rows.accept(toRow(number, splitCsvLine(line), columns));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read CSV body: " + e.getMessage(), e);
+        }
+    }
+
+    // Position of every expected column in the header
+    private static int[] columnIndexes(List<String> header) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        int[] indexes = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            Integer position = positions.get(CSV_COLUMNS.get(i));
+            if (position == null) {
+                throw new IllegalArgumentException("CSV header is missing column '" + CSV_COLUMNS.get(i) + "'");
+            }
+            indexes[i] = position;
+        }
+        return indexes;
+    }
+
+    private static Row toRow(int number, List<String> fields, int[] columns) {
+        for (int column : columns) {
+            if (column >= fields.size()) {
+                return new Row(number, null, "Expected " + CSV_COLUMNS.size() + " columns, found " + fields.size());
+            }
+        }
+        try {
+            CreateProductRequestDto product = new CreateProductRequestDto(
+                    fields.get(columns[0]),
+                    Double.parseDouble(fields.get(columns[1]).trim()),
+                    Integer.parseInt(fields.get(columns[2]).trim()),
+                    new Point(Integer.parseInt(fields.get(columns[3]).trim()), Integer.parseInt(fields.get(columns[4]).trim()))
+            );
+            return new Row(number, product, null);
+        } catch (NumberFormatException e) {
+            return new Row(number, null, "Invalid number: " + e.getMessage());
+        }
+    }
+
+    // Comma separated fields, a field in double quotes may contain commas and "" for a quote
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
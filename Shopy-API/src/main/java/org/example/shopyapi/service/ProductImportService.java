@@ -0,0 +1,239 @@
+package org.example.shopyapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.shopyapi.dto.CreateProductRequestDto;
+import org.example.shopyapi.dto.ProductImportResultDto;
+import org.example.shopyapi.dto.ProductImportResultDto.RowStatus;
+import org.example.shopyapi.model.Product;
+import org.example.shopyapi.model.User;
+import org.example.shopyapi.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Bulk variant of InventoryService.createProduct with the same rules per row: a known product at the
+// same location and price gets the quantity added, every other name or location conflict fails the row.
+// The user's products are loaded once and conflicts are checked in memory. New products and stock
+// additions are written with JDBC batches of app.products.import.chunk-size rows.
+@Service
+public class ProductImportService {
+    private static final String INSERT_PRODUCT =
+            "insert into product (id, name, price, quantity, location_x, location_y, user_id) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String ADD_STOCK =
+            "update product set quantity = quantity + ? where id = ? and user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final ProductIdAllocator productIdAllocator;
+    private final InventoryEventService inventoryEventService;
+    private final ProductCache productCache;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                UserRepository userRepository,
+                                ProductIdAllocator productIdAllocator,
+                                InventoryEventService inventoryEventService,
+                                ProductCache productCache,
+                                ObjectMapper objectMapper,
+                                @Value("${app.products.import.chunk-size:1000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Import chunk size must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.productIdAllocator = productIdAllocator;
+        this.inventoryEventService = inventoryEventService;
+        this.productCache = productCache;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    @Transactional
+    public ProductImportResultDto importJson(InputStream body, String userEmail) {
+        Import productImport = startImport(userEmail);
+        ProductImportReader.readJson(body, objectMapper, productImport::accept);
+        return productImport.finish();
+    }
+
+    @Transactional
+    public ProductImportResultDto importCsv(InputStream body, String userEmail) {
+        Import productImport = startImport(userEmail);
+        ProductImportReader.readCsv(body, productImport::accept);
+        return productImport.finish();
+    }
+
+    private Import startImport(String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new RuntimeException("User not found: " + userEmail));
+        Import productImport = new Import(user.getId());
+        jdbcTemplate.query("select id, name, price, location_x, location_y from product where user_id = ?",
+                resultSet -> {
+                    productImport.addExisting(new KnownProduct(resultSet.getLong(1), resultSet.getString(2),
+                            resultSet.getDouble(3), resultSet.getInt(4), resultSet.getInt(5)));
+                },
+                user.getId());
+        return productImport;
+    }
+
+    // A product of the user, either already stored or created by this import.
+    // Products created by the import get their id when their chunk is written.
+    private static final class KnownProduct {
+        private Long id;
+        private final String name;
+        private final double price;
+        private final int x;
+        private final int y;
+        private int quantity;
+
+        private KnownProduct(Long id, String name, double price, int x, int y) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+            this.x = x;
+            this.y = y;
+        }
+
+        private long location() {
+            return packLocation(x, y);
+        }
+    }
+
+    private static long packLocation(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private record RowOutcome(int row, String name, RowStatus status, KnownProduct product, String error) { }
+
+    // State of one running import
+    private final class Import {
+        private final Long userId;
+        private final Map<String, KnownProduct> byName = new HashMap<>();
+        private final Map<Long, KnownProduct> byLocation = new HashMap<>();
+        private final List<RowOutcome> outcomes = new ArrayList<>();
+        private final List<KnownProduct> pendingInserts = new ArrayList<>();
+        private final Map<KnownProduct, Integer> pendingStock = new LinkedHashMap<>();
+        private int created;
+        private int updated;
+        private int failed;
+
+        private Import(Long userId) {
+            this.userId = userId;
+        }
+
+        private void addExisting(KnownProduct product) {
+            byName.put(product.name, product);
+            byLocation.put(product.location(), product);
+        }
+
+        private void accept(ProductImportReader.Row row) {
+            if (row.error() != null) {
+                fail(row.number(), null, row.error());
+                return;
+            }
+
+            CreateProductRequestDto dto = row.product();
+            try {
+                // Same validation as a single create
+                new Product(dto.name(), dto.price(), dto.quantity(), dto.location());
+            } catch (IllegalArgumentException e) {
+                fail(row.number(), dto.name(), e.getMessage());
+                return;
+            }
+
+            KnownProduct productByName = byName.get(dto.name());
+            KnownProduct productAtLocation = byLocation.get(packLocation(dto.location().getX(), dto.location().getY()));
+            boolean sameLocation = productByName != null
+                    && productByName.x == dto.location().getX() && productByName.y == dto.location().getY();
+
+            // Same name and same location for this user
+            if (sameLocation) {
+                if (Double.compare(productByName.price, dto.price()) != 0) {
+                    fail(row.number(), dto.name(), "Product with name '" + dto.name() + "' at location " + dto.location() + " already exists but with a different price.");
+                    return;
+                }
+                if (productByName.id == null) {
+                    productByName.quantity += dto.quantity();
+                } else {
+                    pendingStock.merge(productByName, dto.quantity(), Integer::sum);
+                }
+                updated++;
+                record(new RowOutcome(row.number(), dto.name(), RowStatus.UPDATED, productByName, null));
+                return;
+            }
+
+            // Same name, different location for this user
+            if (productByName != null) {
+                fail(row.number(), dto.name(), "Product with name '" + dto.name() + "' already exists at a different location.");
+                return;
+            }
+
+            // Different name, same location for this user
+            if (productAtLocation != null && !productAtLocation.name.equalsIgnoreCase(dto.name())) {
+                fail(row.number(), dto.name(), "Location " + dto.location() + " is already occupied by product: " + productAtLocation.name);
+                return;
+            }
+
+            KnownProduct product = new KnownProduct(null, dto.name(), dto.price(), dto.location().getX(), dto.location().getY());
+            product.quantity = dto.quantity();
+            addExisting(product);
+            pendingInserts.add(product);
+            created++;
+            record(new RowOutcome(row.number(), dto.name(), RowStatus.CREATED, product, null));
+        }
+
+        private void fail(int row, String name, String error) {
+            failed++;
+            record(new RowOutcome(row, name, RowStatus.FAILED, null, error));
+        }
+
+        private void record(RowOutcome outcome) {
+            outcomes.add(outcome);
+            if (pendingInserts.size() + pendingStock.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!pendingInserts.isEmpty()) {
+                long nextId = productIdAllocator.nextIds(userId, pendingInserts.size());
+                List<Object[]> inserts = new ArrayList<>(pendingInserts.size());
+                for (KnownProduct product : pendingInserts) {
+                    product.id = nextId++;
+                    inserts.add(new Object[] {product.id, product.name, product.price, product.quantity, product.x, product.y, userId});
+                }
+                jdbcTemplate.batchUpdate(INSERT_PRODUCT, inserts);
+                pendingInserts.clear();
+            }
+            if (!pendingStock.isEmpty()) {
+                List<Object[]> stockAdditions = new ArrayList<>(pendingStock.size());
+                pendingStock.forEach((product, quantity) -> stockAdditions.add(new Object[] {quantity, product.id, userId}));
+                jdbcTemplate.batchUpdate(ADD_STOCK, stockAdditions);
+                pendingStock.clear();
+            }
+        }
+
+        private ProductImportResultDto finish() {
+            flush();
+            // Subscribers reload the list instead of receiving an event per imported row
+            if (created + updated > 0) {
+                productCache.evictUser(userId);
+                inventoryEventService.productsReplaced(userId);
+            }
+            List<ProductImportResultDto.Row> rows = new ArrayList<>(outcomes.size());
+            for (RowOutcome outcome : outcomes) {
+                rows.add(new ProductImportResultDto.Row(outcome.row(), outcome.name(), outcome.status(),
+                        outcome.product() != null ? outcome.product().id : null, outcome.error()));
+            }
+            return new ProductImportResultDto(created, updated, failed, rows);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.shopyapi.service;
+
+import org.example.shopyapi.dto.PageDto;
+import org.example.shopyapi.dto.ProductDto;
+import org.example.shopyapi.dto.ProductListRequestDto;
+import org.example.shopyapi.model.Point;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Keyset pagination over the products of one user. A page continues after the sort key of the
+// previous page's last row instead of skipping rows with an offset, so every page is an index range
+// scan on (user_id, id) or (user_id, name, id) no matter how deep into the listing it is.
+@Service
+public class ProductListingService {
+    private static final String COLUMNS = "select id, name, price, quantity, location_x, location_y from product";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCache productCache;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int streamFetchSize;
+
+    private record Query(String sql, List<Object> args) { }
+
+    public ProductListingService(JdbcTemplate jdbcTemplate,
+                                 ProductCache productCache,
+                                 @Value("${app.listing.default-page-size:100}") int defaultPageSize,
+                                 @Value("${app.listing.max-page-size:1000}") int maxPageSize,
+                                 @Value("${app.listing.stream-fetch-size:500}") int streamFetchSize) {
+        if (defaultPageSize < 1 || maxPageSize < defaultPageSize || streamFetchSize < 1) {
+            throw new IllegalArgumentException("Listing page and fetch sizes must be at least 1, max >= default");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.productCache = productCache;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    // Pages are kept in the user's ProductCache snapshot until one of the user's products changes
+    public PageDto<ProductDto> listPage(Long userId, ProductListRequestDto request) {
+        return productCache.page(userId, request, () -> loadPage(userId, request));
+    }
+
+    private PageDto<ProductDto> loadPage(Long userId, ProductListRequestDto request) {
+        int pageSize = request.limit() == null ? defaultPageSize : request.limit();
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        String sort = sortOf(request);
+
+        // One extra row tells whether there is a next page
+        Query query = buildQuery(userId, request, sort, pageSize + 1);
+        List<ProductDto> products = jdbcTemplate.query(query.sql(), (resultSet, rowNum) -> toDto(resultSet),
+                query.args().toArray());
+        if (products.size() <= pageSize) {
+            return new PageDto<>(products, null);
+        }
+        products = products.subList(0, pageSize);
+        ProductDto last = products.get(pageSize - 1);
+        return new PageDto<>(products, ListingCursor.encode(sort, last.id(), "name".equals(sort) ? last.name() : null));
+    }
+
+    // Hands the rows to the consumer while they are read. The transaction lets the driver fetch with a
+    // server-side cursor in chunks of app.listing.stream-fetch-size instead of buffering the whole result.
+    @Transactional(readOnly = true)
+    public void stream(Long userId, ProductListRequestDto request, Consumer<ProductDto> consumer) {
+        if (request.limit() != null && request.limit() < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        Query query = buildQuery(userId, request, sortOf(request), request.limit());
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(query.sql());
+            new ArgumentPreparedStatementSetter(query.args().toArray()).setValues(statement);
+            statement.setFetchSize(streamFetchSize);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(toDto(resultSet)));
+    }
+
+    private static String sortOf(ProductListRequestDto request) {
+        String sort = request.sort() == null ? "id" : request.sort();
+        if (!sort.equals("id") && !sort.equals("name")) {
+            throw new IllegalArgumentException("sort must be 'id' or 'name'");
+        }
+        return sort;
+    }
+
+    private static Query buildQuery(Long userId, ProductListRequestDto request, String sort, Integer limit) {
+        StringBuilder sql = new StringBuilder(COLUMNS).append(" where user_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+
+        if (request.namePrefix() != null && !request.namePrefix().isEmpty()) {
+            sql.append(" and name like ? escape '\\'");
+            args.add(request.namePrefix().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+        addBound(sql, args, "location_x >= ?", request.minX());
+        addBound(sql, args, "location_x <= ?", request.maxX());
+        addBound(sql, args, "location_y >= ?", request.minY());
+        addBound(sql, args, "location_y <= ?", request.maxY());
+
+        if (request.cursor() != null) {
+            ListingCursor cursor = ListingCursor.decode(request.cursor(), sort);
+            if (sort.equals("name")) {
+                sql.append(" and (name, id) > (?, ?)");
+                args.add(cursor.name());
+            } else {
+                sql.append(" and id > ?");
+            }
+            args.add(cursor.id());
+        }
+
+        sql.append(sort.equals("name") ? " order by name, id" : " order by id");
+        if (limit != null) {
+            sql.append(" limit ?");
+            args.add(limit);
+        }
+        return new Query(sql.toString(), args);
+    }
+
+    private static void addBound(StringBuilder sql, List<Object> args, String condition, Integer value) {
+        if (value != null) {
+            sql.append(" and ").append(condition);
+            args.add(value);
+        }
+    }
+
+    private static ProductDto toDto(ResultSet resultSet) throws SQLException {
+        return new ProductDto(resultSet.getLong(1), resultSet.getString(2), resultSet.getDouble(3),
+                resultSet.getInt(4), new Point(resultSet.getInt(5), resultSet.getInt(6)));
+    }
+}
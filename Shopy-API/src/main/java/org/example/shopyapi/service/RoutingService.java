@@ -1,85 +1,164 @@
 package org.example.shopyapi.service;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.example.shopyapi.model.Point;
+import org.example.shopyapi.routing.DistanceMatrix;
+import org.example.shopyapi.routing.GridPathfinder;
+import org.example.shopyapi.routing.HeldKarpRouteSolver;
+import org.example.shopyapi.routing.LocalSearchRouteSolver;
+import org.example.shopyapi.routing.RouteSolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class RoutingService {
     private final Point WAREHOUSE_START_POINT = new Point(0, 0);
 
-    public List<Point> calculateOptimalRoute(List<Point> pickupLocations) {
-        List<Point> destinationSequence = findDestinationSequence(pickupLocations);
+    private final RouteSolver exactSolver;
+    private final RouteSolver heuristicSolver;
+    private final int exactSolverMaxStops;
+    private final long timeBudgetNanos;
+    // Present when a warehouse layout is configured, otherwise the floor is treated as an empty grid
+    private final GridPathfinder gridPathfinder;
+
+    // Published under shopy.routing.*, registered once so a route records without lookups
+    private final DistributionSummary stops;
+    private final DistributionSummary pathLength;
+    private final Timer exactSolveTime;
+    private final Timer heuristicSolveTime;
+
+    @Autowired
+    public RoutingService(HeldKarpRouteSolver exactSolver,
+                          LocalSearchRouteSolver heuristicSolver,
+                          @Nullable GridPathfinder gridPathfinder,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.routing.exact-max-stops:15}") int exactSolverMaxStops,
+                          @Value("${app.routing.time-budget-ms:200}") long timeBudgetMillis) {
+        if (exactSolverMaxStops > HeldKarpRouteSolver.MAX_STOPS) {
+            throw new IllegalArgumentException("app.routing.exact-max-stops cannot exceed " + HeldKarpRouteSolver.MAX_STOPS);
+        }
+        this.exactSolver = exactSolver;
+        this.heuristicSolver = heuristicSolver;
+        this.exactSolverMaxStops = exactSolverMaxStops;
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        this.gridPathfinder = gridPathfinder;
+
+        this.stops = DistributionSummary.builder("shopy.routing.stops")
+                .description("Pickup locations per calculated route")
+                .register(meterRegistry);
+        this.pathLength = DistributionSummary.builder("shopy.routing.path.length")
+                .description("Cells walked along a calculated route, back to the start point")
+                .baseUnit("cells")
+                .register(meterRegistry);
+        this.exactSolveTime = solveTimer(meterRegistry, "exact");
+        this.heuristicSolveTime = solveTimer(meterRegistry, "heuristic");
+    }
 
-        return buildFullPath(destinationSequence);
+    private static Timer solveTimer(MeterRegistry meterRegistry, String solver) {
+        return Timer.builder("shopy.routing.solve")
+                .description("Time to find the visit order of a route")
+                .tag("solver", solver)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(1))
+                .register(meterRegistry);
     }
 
-    // Calculates the optimal route using a Nearest Neighbor heuristic
-    private List<Point> findDestinationSequence(List<Point> pickupLocations) {
+    public List<Point> calculateOptimalRoute(List<Point> pickupLocations) {
         if (pickupLocations == null || pickupLocations.isEmpty()) {
             return List.of(WAREHOUSE_START_POINT, WAREHOUSE_START_POINT);
         }
 
-        List<Point> sequence = new ArrayList<>();
-        List<Point> remaining = new ArrayList<>(pickupLocations);
-        Point currentLocation = WAREHOUSE_START_POINT;
-
-        sequence.add(currentLocation);
+        // The routing core works on packed coordinates, node 0 is the warehouse start point.
+        int size = pickupLocations.size() + 1;
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        xs[0] = WAREHOUSE_START_POINT.getX();
+        ys[0] = WAREHOUSE_START_POINT.getY();
+        for (int i = 1; i < size; i++) {
+            Point location = pickupLocations.get(i - 1);
+            xs[i] = location.getX();
+            ys[i] = location.getY();
+        }
 
-        while (!remaining.isEmpty()) {
-            Point nearestLocation = null;
-            int shortestDistance = Integer.MAX_VALUE;
+        List<Point> route;
+        if (gridPathfinder != null) {
+            route = calculateWalkableRoute(xs, ys);
+        } else {
+            int[] visitOrder = findVisitOrder(DistanceMatrix.manhattan(xs, ys));
+            route = buildFullPath(xs, ys, visitOrder);
+        }
 
-            for (Point location : remaining) {
-                int distance = calculateManhattanDistance(currentLocation, location);
-                if (distance < shortestDistance) {
-                    shortestDistance = distance;
-                    nearestLocation = location;
-                }
-            }
+        stops.record(pickupLocations.size());
+        pathLength.record(length(route));
+        return route;
+    }
 
-            if (nearestLocation == null) {
-                throw new IllegalStateException("Routing algorithm failed: Could not determine the next location.");
-            }
+    // Consecutive points of a route differ along one axis only
+    private static long length(List<Point> route) {
+        long length = 0;
+        for (int i = 1; i < route.size(); i++) {
+            Point from = route.get(i - 1);
+            Point to = route.get(i);
+            length += Math.abs(to.getX() - from.getX()) + Math.abs(to.getY() - from.getY());
+        }
+        return length;
+    }
 
-            currentLocation = nearestLocation;
-            sequence.add(currentLocation);
-            remaining.remove(currentLocation);
+    // Orders the stops by real walking distance and expands each leg around racks and along one-way aisles.
+    private List<Point> calculateWalkableRoute(int[] xs, int[] ys) {
+        int[] cells = new int[xs.length];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = gridPathfinder.toCell(xs[i], ys[i]);
         }
 
-        sequence.add(WAREHOUSE_START_POINT);
-        return sequence;
+        int[] visitOrder = findVisitOrder(gridPathfinder.distanceMatrix(cells));
+
+        return gridPathfinder.buildPath(cells, visitOrder);
     }
 
-    private List<Point> buildFullPath(List<Point> destinationSequence) {
-        List<Point> fullPath = new ArrayList<>();
-        if (destinationSequence.isEmpty()) {
-            return fullPath;
-        }
+    // Small pick lists are solved exactly with Held-Karp,
+    // larger ones with 2-opt/Or-opt local search within the time budget.
+    private int[] findVisitOrder(DistanceMatrix distances) {
+        long start = System.nanoTime();
+        long deadlineNanos = start + timeBudgetNanos;
+        boolean exact = distances.size() - 1 <= exactSolverMaxStops;
+        int[] visitOrder = (exact ? exactSolver : heuristicSolver).solve(distances, deadlineNanos);
+        (exact ? exactSolveTime : heuristicSolveTime).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return visitOrder;
+    }
+
+    // Expands the tour 0 -> visitOrder -> 0 into the full path.
+    // Points are only materialised here, at the API boundary.
+    private List<Point> buildFullPath(int[] xs, int[] ys, int[] visitOrder) {
+        List<Point> fullPath = new ArrayList<>(2 * visitOrder.length + 3);
 
-        for (int i = 0; i < destinationSequence.size() - 1; i++) {
-            Point start = destinationSequence.get(i);
-            Point end = destinationSequence.get(i + 1);
+        int start = 0;
+        for (int i = 0; i <= visitOrder.length; i++) {
+            int end = i < visitOrder.length ? visitOrder[i] : 0;
 
-            fullPath.add(start);
+            fullPath.add(new Point(xs[start], ys[start]));
 
             // If the bot needs to move on both axes
             // it adds the intermediate corner point.
             // It moves along the X-axis first then the Y-axis.
-            if (start.getX() != end.getX() && start.getY() != end.getY()) {
-                Point corner = new Point(end.getX(), start.getY());
-                fullPath.add(corner);
+            if (xs[start] != xs[end] && ys[start] != ys[end]) {
+                fullPath.add(new Point(xs[end], ys[start]));
             }
+            start = end;
         }
 
-        fullPath.add(destinationSequence.get(destinationSequence.size() - 1));
+        fullPath.add(new Point(xs[0], ys[0]));
 
         return fullPath;
     }
-
-    private int calculateManhattanDistance(Point p1, Point p2) {
-        return Math.abs(p1.getX() - p2.getY()) + Math.abs(p1.getY() - p2.getY());
-    }
 }
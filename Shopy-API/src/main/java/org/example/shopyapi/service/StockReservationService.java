@@ -0,0 +1,123 @@
+package org.example.shopyapi.service;
+
+import org.example.shopyapi.dto.InventoryEventDto;
+import org.example.shopyapi.model.Point;
+import org.example.shopyapi.model.Product;
+import org.example.shopyapi.model.User;
+import org.example.shopyapi.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Takes the stock for all lines of an order, all or nothing.
+// Every decrement is a conditional UPDATE (quantity >= requested) instead of a read-modify-write,
+// so concurrent orders for the same product can never oversell it.
+@Service
+public class StockReservationService {
+    private final ProductRepository productRepository;
+    private final InventoryEventService inventoryEventService;
+    private final ProductCache productCache;
+    private final OrderMetrics orderMetrics;
+
+    public StockReservationService(ProductRepository productRepository, InventoryEventService inventoryEventService, ProductCache productCache, OrderMetrics orderMetrics) {
+        this.productRepository = productRepository;
+        this.inventoryEventService = inventoryEventService;
+        this.productCache = productCache;
+        this.orderMetrics = orderMetrics;
+    }
+
+    // Why an order cannot be fulfilled, a missing product wins over short stock
+    public enum Failure { PRODUCT_NOT_FOUND, INSUFFICIENT_STOCK }
+
+    // Outcome of reserveStock: either the reasons the order cannot be fulfilled and the main one,
+    // or the distinct locations of the products whose stock was taken and the quantity taken per product id.
+    public record StockResult(List<String> missingItems, List<Point> locations, Map<Long, Integer> reservedQuantities, Failure failure) {
+        public boolean isReserved() {
+            return missingItems.isEmpty();
+        }
+    }
+
+    @Transactional
+    public StockResult reserveStock(User user, Map<String, Integer> requestedQuantities) {
+        long start = System.nanoTime();
+        Map<String, Product> productsByName = productRepository.findByUserAndNameIn(user, requestedQuantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getName, Function.identity(), (first, second) -> first));
+
+        // Fail fast on the snapshot so the common case reports every short line at once
+        List<String> missingItems = new ArrayList<>();
+        Failure failure = Failure.INSUFFICIENT_STOCK;
+        for (Map.Entry<String, Integer> entry : requestedQuantities.entrySet()) {
+            Product product = productsByName.get(entry.getKey());
+            if (product == null) {
+                missingItems.add(entry.getKey() + ": product not found");
+                failure = Failure.PRODUCT_NOT_FOUND;
+            } else if (product.getQuantity() < entry.getValue()) {
+                missingItems.add(insufficientStock(product, entry.getValue()));
+            }
+        }
+        orderMetrics.recordPhase(OrderMetrics.Phase.STOCK_CHECK, start);
+        if (!missingItems.isEmpty()) {
+            return new StockResult(missingItems, List.of(), Map.of(), failure);
+        }
+        start = System.nanoTime();
+
+        // Rows are updated in id order so two orders sharing products cannot deadlock
+        List<Product> products = productsByName.values().stream()
+                .sorted(Comparator.comparing(Product::getId))
+                .toList();
+        Map<Long, Integer> reservedQuantities = new LinkedHashMap<>();
+        for (Product product : products) {
+            int quantity = requestedQuantities.get(product.getName());
+            if (productRepository.decreaseStock(product.getId(), user.getId(), quantity) == 0) {
+                // Another order took the stock after the snapshot: give back the lines taken so far.
+                // Not a rollback, the caller's transaction may join this one and still save the failed order.
+                increaseStock(user.getId(), reservedQuantities);
+                orderMetrics.recordPhase(OrderMetrics.Phase.FULFIL, start);
+                return new StockResult(List.of(insufficientStock(product, quantity)), List.of(), Map.of(), Failure.INSUFFICIENT_STOCK);
+            }
+            reservedQuantities.put(product.getId(), quantity);
+        }
+        orderMetrics.recordPhase(OrderMetrics.Phase.FULFIL, start);
+
+        // Applied once the order's transaction commits, a rolled back reservation changes nothing
+        for (Product product : products) {
+            productCache.evict(user.getId(), product.getId());
+            inventoryEventService.productChanged(user.getId(), product.getId(), InventoryEventDto.Type.STOCK_CHANGED);
+        }
+
+        Set<Point> locations = new LinkedHashSet<>();
+        for (String name : requestedQuantities.keySet()) {
+            locations.add(productsByName.get(name).getLocation());
+        }
+        return new StockResult(List.of(), new ArrayList<>(locations), reservedQuantities, null);
+    }
+
+    // Gives back stock taken by reserveStock for an order that could not be completed afterwards
+    @Transactional
+    public void releaseStock(User user, Map<Long, Integer> reservedQuantities) {
+        increaseStock(user.getId(), reservedQuantities);
+        for (Long productId : reservedQuantities.keySet()) {
+            productCache.evict(user.getId(), productId);
+            inventoryEventService.productChanged(user.getId(), productId, InventoryEventDto.Type.STOCK_CHANGED);
+        }
+    }
+
+    // In id order, like the decrements
+    private void increaseStock(Long userId, Map<Long, Integer> quantities) {
+        quantities.keySet().stream().sorted().forEach(productId ->
+                productRepository.increaseStock(productId, userId, quantities.get(productId)));
+    }
+
+    private String insufficientStock(Product product, int requested) {
+        return product.getName() + " (requested " + requested + ", available " + product.getQuantity() + ")";
+    }
+}
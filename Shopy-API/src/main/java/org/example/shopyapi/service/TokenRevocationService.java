@@ -0,0 +1,32 @@
+package org.example.shopyapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+// Remembers per user the moment from which older tokens are no longer accepted, for example after a logout.
+// Requests are authenticated from the token alone, so this is the only way to end a token's life early.
+// Entries only have to outlive the tokens they reject, and are kept in the memory of this instance.
+@Service
+public class TokenRevocationService {
+    private final Cache<Long, Long> revokedBeforeMillis;
+
+    public TokenRevocationService(@Value("${app.jwt.revocation-retention-hours:24}") long retentionHours) {
+        this.revokedBeforeMillis = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofHours(retentionHours))
+                .build();
+    }
+
+    public void revokeTokens(Long userId) {
+        revokedBeforeMillis.put(userId, System.currentTimeMillis());
+    }
+
+    // Issue times are compared in milliseconds, so a token from a login right after the logout is accepted
+    public boolean isRevoked(Long userId, long issuedAtMillis) {
+        Long revokedBefore = revokedBeforeMillis.getIfPresent(userId);
+        return revokedBefore != null && issuedAtMillis < revokedBefore;
+    }
+}
@@ -0,0 +1,11 @@
+-- Creation time of orders, for filtering order listings by date. Existing orders keep NULL, as with
+-- ddl-auto: their creation time is unknown, and OrderArchiveService archives them on its first run.
+-- The default is set afterwards so that it only applies to new orders.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS created_at TIMESTAMP WITH TIME ZONE;
+ALTER TABLE orders ALTER COLUMN created_at SET DEFAULT now();
+
+-- Keyset pagination: every listing page is a range scan that continues after the last sort key
+CREATE INDEX idx_orders_user_id_id ON orders(user_id, id);
+DROP INDEX IF EXISTS idx_orders_user_id;
+CREATE INDEX idx_product_user_id_name_id ON product(user_id, name, id);
+DROP INDEX IF EXISTS idx_product_user_id_name;
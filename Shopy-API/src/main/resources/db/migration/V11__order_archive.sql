@@ -0,0 +1,16 @@
+-- Finished orders moved out of orders by OrderArchiveService, items and route as OrderCodec blobs.
+-- Partitioned by month of creation; the service creates a month's partition (order_archive_yYYYYmMM)
+-- before moving orders into it. Old months can be detached or dropped without touching the rest.
+CREATE TABLE order_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    pick_tour_id BIGINT,
+    items BYTEA NOT NULL,
+    route BYTEA NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX idx_order_archive_user_id_id ON order_archive(user_id, id);
@@ -0,0 +1,57 @@
+-- Routes move from one row per stop (order_route, pick_tour_route) to one OrderCodec column:
+-- the stop count, then per stop the x and y step from the previous stop (from 0,0 for the first),
+-- each zigzag encoded and written as a varint.
+ALTER TABLE orders ADD COLUMN route BYTEA;
+ALTER TABLE pick_tour ADD COLUMN route BYTEA;
+
+CREATE FUNCTION pg_temp.route_varint(value BIGINT) RETURNS BYTEA AS $$
+DECLARE
+    result BYTEA := ''::bytea;
+BEGIN
+    WHILE value >= 128 LOOP
+        result := result || set_byte('\x00'::bytea, 0, ((value & 127) | 128)::int);
+        value := value >> 7;
+    END LOOP;
+    RETURN result || set_byte('\x00'::bytea, 0, value::int);
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION pg_temp.route_zigzag(value BIGINT) RETURNS BIGINT AS $$
+    SELECT CASE WHEN value >= 0 THEN value * 2 ELSE -value * 2 - 1 END;
+$$ LANGUAGE sql;
+
+CREATE FUNCTION pg_temp.encode_route(xs INT[], ys INT[]) RETURNS BYTEA AS $$
+DECLARE
+    stops INT := coalesce(array_length(xs, 1), 0);
+    result BYTEA := pg_temp.route_varint(stops);
+    previous_x INT := 0;
+    previous_y INT := 0;
+BEGIN
+    FOR i IN 1..stops LOOP
+        result := result
+            || pg_temp.route_varint(pg_temp.route_zigzag(xs[i] - previous_x))
+            || pg_temp.route_varint(pg_temp.route_zigzag(ys[i] - previous_y));
+        previous_x := xs[i];
+        previous_y := ys[i];
+    END LOOP;
+    RETURN result;
+END;
+$$ LANGUAGE plpgsql;
+
+-- The element collections had no order column, their rows were read back in physical order
+UPDATE orders o SET route = pg_temp.encode_route(r.xs, r.ys)
+FROM (SELECT order_id, array_agg(x ORDER BY ctid) AS xs, array_agg(y ORDER BY ctid) AS ys
+      FROM order_route GROUP BY order_id) r
+WHERE o.id = r.order_id;
+
+UPDATE pick_tour t SET route = pg_temp.encode_route(r.xs, r.ys)
+FROM (SELECT pick_tour_id, array_agg(x ORDER BY ctid) AS xs, array_agg(y ORDER BY ctid) AS ys
+      FROM pick_tour_route GROUP BY pick_tour_id) r
+WHERE t.id = r.pick_tour_id;
+
+-- An empty route is a zero stop count
+UPDATE orders SET route = '\x00'::bytea WHERE route IS NULL;
+UPDATE pick_tour SET route = '\x00'::bytea WHERE route IS NULL;
+
+DROP TABLE order_route;
+DROP TABLE pick_tour_route;
@@ -0,0 +1,9 @@
+-- PENDING orders accepted by POST /api/orders/async that a worker still has to complete.
+-- A row is written with its order and deleted in the transaction that completes it.
+CREATE TABLE order_outbox (
+    order_id BIGINT PRIMARY KEY REFERENCES orders(id) ON DELETE CASCADE,
+    enqueued_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Hibernate generated a check over the enum values, which does not know PENDING
+ALTER TABLE orders DROP CONSTRAINT IF EXISTS orders_status_check;
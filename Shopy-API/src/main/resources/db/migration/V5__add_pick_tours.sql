@@ -0,0 +1,18 @@
+-- Shared picker tours for batched orders
+CREATE TABLE pick_tour (
+    id BIGSERIAL PRIMARY KEY
+);
+
+CREATE TABLE pick_tour_route (
+    pick_tour_id BIGINT NOT NULL,
+    x INTEGER NOT NULL,
+    y INTEGER NOT NULL,
+    CONSTRAINT fk_pick_tour_route FOREIGN KEY (pick_tour_id) REFERENCES pick_tour(id)
+);
+
+ALTER TABLE orders ADD COLUMN pick_tour_id BIGINT;
+
+ALTER TABLE orders ADD CONSTRAINT fk_orders_pick_tour
+    FOREIGN KEY (pick_tour_id) REFERENCES pick_tour(id);
+
+CREATE INDEX idx_orders_pick_tour_id ON orders(pick_tour_id);
@@ -0,0 +1,6 @@
+-- Order items take their ids from the sequence in blocks of 50 so their inserts can be batched
+ALTER TABLE order_item ALTER COLUMN id DROP DEFAULT;
+ALTER SEQUENCE order_item_id_seq INCREMENT BY 50;
+
+-- Products of an order are fetched by owner and name in one query
+CREATE INDEX idx_product_user_id_name ON product(user_id, name);
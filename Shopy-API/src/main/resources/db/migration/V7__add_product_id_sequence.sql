@@ -0,0 +1,8 @@
+-- Per-user product id counter, ids are handed out in blocks
+CREATE TABLE product_id_sequence (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    next_id BIGINT NOT NULL
+);
+
+INSERT INTO product_id_sequence (user_id, next_id)
+SELECT user_id, MAX(id) + 1 FROM product WHERE user_id IS NOT NULL GROUP BY user_id;
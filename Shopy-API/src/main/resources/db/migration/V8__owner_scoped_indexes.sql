@@ -0,0 +1,2 @@
+-- Lookups by owner and shelf, orders are already indexed by user_id in V2
+CREATE INDEX idx_product_user_id_location ON product(user_id, location_x, location_y);
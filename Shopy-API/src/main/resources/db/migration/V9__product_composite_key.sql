@@ -0,0 +1,10 @@
+-- Product ids are numbered per user, so the primary key becomes (user_id, id).
+-- Products without an owner cannot be reached through the API and are dropped.
+DELETE FROM product WHERE user_id IS NULL;
+
+ALTER TABLE product ALTER COLUMN user_id SET NOT NULL;
+ALTER TABLE product DROP CONSTRAINT IF EXISTS product_pkey;
+ALTER TABLE product ADD CONSTRAINT product_pkey PRIMARY KEY (user_id, id);
+
+-- Covered by the leading column of the new primary key
+DROP INDEX IF EXISTS idx_product_user_id;
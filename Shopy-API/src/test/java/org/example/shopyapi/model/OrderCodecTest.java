@@ -0,0 +1,91 @@
+package org.example.shopyapi.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderCodecTest {
+
+    @Test
+    void emptyAndSinglePointRoutes() {
+        assertRoundTrip(List.of());
+        assertRoundTrip(List.of(new Point(0, 0)));
+        assertRoundTrip(List.of(new Point(-7, 12)));
+    }
+
+    @Test
+    void negativeSteps() {
+        assertRoundTrip(List.of(new Point(0, 0), new Point(5, 0), new Point(5, 9), new Point(-3, 9), new Point(-3, -4), new Point(0, 0)));
+    }
+
+    @Test
+    void largeCoordinates() {
+        // Steps between the extremes overflow an int, they wrap and wrap back when decoded
+        assertRoundTrip(List.of(
+                new Point(Integer.MAX_VALUE, Integer.MIN_VALUE),
+                new Point(Integer.MIN_VALUE, Integer.MAX_VALUE),
+                new Point(0, 0),
+                new Point(-1, Integer.MAX_VALUE),
+                new Point(1_000_000_000, -1_000_000_000)));
+    }
+
+    @Test
+    void randomRoutes() {
+        Random random = new Random(17);
+        for (int round = 0; round < 500; round++) {
+            List<Point> route = new ArrayList<>();
+            int size = random.nextInt(40);
+            for (int i = 0; i < size; i++) {
+                route.add(round % 2 == 0
+                        ? new Point(random.nextInt(200) - 100, random.nextInt(200) - 100)
+                        : new Point(random.nextInt(), random.nextInt()));
+            }
+            assertRoundTrip(route);
+        }
+    }
+
+    @Test
+    void shortStepsTakeOneBytePerCoordinate() {
+        List<Point> route = List.of(new Point(0, 0), new Point(3, 0), new Point(3, -4), new Point(0, -4), new Point(0, 0));
+
+        assertEquals(1 + route.size() * 2, OrderCodec.encodeRoute(route).length);
+    }
+
+    @Test
+    void itemsRoundTrip() {
+        List<OrderItem> items = List.of(
+                new OrderItem("Apple", 3),
+                new OrderItem("Crème brûlée", Integer.MAX_VALUE),
+                new OrderItem("", -1));
+
+        List<OrderItem> decoded = OrderCodec.decodeItems(OrderCodec.encodeItems(items));
+
+        assertEquals(items.size(), decoded.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(items.get(i).getProductName(), decoded.get(i).getProductName());
+            assertEquals(items.get(i).getQuantity(), decoded.get(i).getQuantity());
+        }
+        assertEquals(List.of(), OrderCodec.decodeItems(OrderCodec.encodeItems(List.of())));
+    }
+
+    @Test
+    void rejectsTruncatedAndTrailingData() {
+        byte[] route = OrderCodec.encodeRoute(List.of(new Point(300, -300), new Point(1, 1)));
+        byte[] items = OrderCodec.encodeItems(List.of(new OrderItem("Apple", 3)));
+
+        assertThrows(IllegalArgumentException.class, () -> OrderCodec.decodeRoute(Arrays.copyOf(route, route.length - 1)));
+        assertThrows(IllegalArgumentException.class, () -> OrderCodec.decodeRoute(Arrays.copyOf(route, route.length + 1)));
+        assertThrows(IllegalArgumentException.class, () -> OrderCodec.decodeItems(Arrays.copyOf(items, items.length - 2)));
+        assertThrows(IllegalArgumentException.class, () -> OrderCodec.decodeRoute(new byte[0]));
+    }
+
+    private static void assertRoundTrip(List<Point> route) {
+        assertEquals(route, OrderCodec.decodeRoute(OrderCodec.encodeRoute(route)));
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.shopyapi.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PackedRouteConverterTest {
+    private final PackedRouteConverter converter = new PackedRouteConverter();
+
+    @Test
+    void roundTripsThroughTheColumn() {
+        for (List<Point> points : List.of(
+                List.<Point>of(),
+                List.of(new Point(4, 4)),
+                List.of(new Point(0, 0), new Point(-5, 0), new Point(-5, -9), new Point(0, -9), new Point(0, 0)),
+                List.of(new Point(Integer.MIN_VALUE, Integer.MAX_VALUE), new Point(Integer.MAX_VALUE, Integer.MIN_VALUE)))) {
+            PackedRoute route = PackedRoute.of(points);
+
+            PackedRoute loaded = converter.convertToEntityAttribute(converter.convertToDatabaseColumn(route));
+
+            assertEquals(route, loaded);
+            assertEquals(points, loaded.points());
+        }
+    }
+
+    @Test
+    void nullColumnIsTheEmptyRoute() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertSame(PackedRoute.EMPTY, converter.convertToEntityAttribute(null));
+        assertEquals(List.of(), PackedRoute.EMPTY.points());
+    }
+
+    @Test
+    void columnBytesAreACopy() {
+        PackedRoute route = PackedRoute.of(List.of(new Point(1, 2)));
+
+        byte[] column = converter.convertToDatabaseColumn(route);
+        column[1] = 0;
+
+        assertEquals(List.of(new Point(1, 2)), route.points());
+        assertEquals(route, converter.convertToEntityAttribute(converter.convertToDatabaseColumn(route)));
+    }
+}
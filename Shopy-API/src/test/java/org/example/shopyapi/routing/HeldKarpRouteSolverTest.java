@@ -0,0 +1,109 @@
+package org.example.shopyapi.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HeldKarpRouteSolverTest {
+    private final HeldKarpRouteSolver solver = new HeldKarpRouteSolver();
+
+    @Test
+    void matchesBruteForceOnSmallInputs() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int stops = 1 + random.nextInt(8);
+            DistanceMatrix distances = randomManhattan(random, stops + 1);
+
+            int[] visitOrder = solver.solve(distances, Long.MAX_VALUE);
+
+            assertIsPermutation(visitOrder, stops);
+            assertEquals(bruteForceLength(distances), distances.tourLength(visitOrder));
+        }
+    }
+
+    @Test
+    void matchesBruteForceOnAsymmetricDistances() {
+        Random random = new Random(43);
+        for (int round = 0; round < 200; round++) {
+            int stops = 1 + random.nextInt(8);
+            DistanceMatrix distances = randomAsymmetric(random, stops + 1);
+
+            int[] visitOrder = solver.solve(distances, Long.MAX_VALUE);
+
+            assertIsPermutation(visitOrder, stops);
+            assertEquals(bruteForceLength(distances), distances.tourLength(visitOrder));
+        }
+    }
+
+    @Test
+    void rejectsMoreThanMaxStops() {
+        int size = HeldKarpRouteSolver.MAX_STOPS + 2;
+        DistanceMatrix distances = DistanceMatrix.manhattan(new int[size], new int[size]);
+
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(distances, Long.MAX_VALUE));
+    }
+
+    static DistanceMatrix randomManhattan(Random random, int size) {
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        for (int i = 1; i < size; i++) {
+            xs[i] = random.nextInt(50);
+            ys[i] = random.nextInt(50);
+        }
+        return DistanceMatrix.manhattan(xs, ys);
+    }
+
+    // Like walking distances along one-way aisles, a to b and b to a can differ
+    static DistanceMatrix randomAsymmetric(Random random, int size) {
+        int[] distances = new int[size * size];
+        for (int a = 0; a < size; a++) {
+            for (int b = 0; b < size; b++) {
+                distances[a * size + b] = a == b ? 0 : 1 + random.nextInt(100);
+            }
+        }
+        return DistanceMatrix.of(distances, size, false);
+    }
+
+    static void assertIsPermutation(int[] visitOrder, int stops) {
+        int[] sorted = visitOrder.clone();
+        Arrays.sort(sorted);
+        int[] expected = new int[stops];
+        for (int i = 0; i < stops; i++) {
+            expected[i] = i + 1;
+        }
+        assertArrayEquals(expected, sorted);
+    }
+
+    // Shortest closed tour over every order of the stops
+    private static int bruteForceLength(DistanceMatrix distances) {
+        int[] order = new int[distances.size() - 1];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i + 1;
+        }
+        return shortest(distances, order, 0);
+    }
+
+    private static int shortest(DistanceMatrix distances, int[] order, int fixed) {
+        if (fixed == order.length) {
+            return distances.tourLength(order);
+        }
+        int best = Integer.MAX_VALUE;
+        for (int i = fixed; i < order.length; i++) {
+            swap(order, fixed, i);
+            best = Math.min(best, shortest(distances, order, fixed + 1));
+            swap(order, fixed, i);
+        }
+        return best;
+    }
+
+    private static void swap(int[] order, int i, int j) {
+        int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+    }
+}
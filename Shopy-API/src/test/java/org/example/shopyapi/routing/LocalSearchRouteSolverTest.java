@@ -0,0 +1,74 @@
+package org.example.shopyapi.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalSearchRouteSolverTest {
+    private final LocalSearchRouteSolver solver = new LocalSearchRouteSolver();
+
+    @Test
+    void neverLongerThanNearestNeighborSeed() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            int stops = 3 + random.nextInt(60);
+            DistanceMatrix distances = HeldKarpRouteSolverTest.randomManhattan(random, stops + 1);
+
+            assertNotLongerThanSeed(distances, stops);
+        }
+    }
+
+    @Test
+    void neverLongerThanNearestNeighborSeedOnAsymmetricDistances() {
+        Random random = new Random(8);
+        for (int round = 0; round < 200; round++) {
+            int stops = 3 + random.nextInt(60);
+            DistanceMatrix distances = HeldKarpRouteSolverTest.randomAsymmetric(random, stops + 1);
+
+            assertNotLongerThanSeed(distances, stops);
+        }
+    }
+
+    @Test
+    void returnsSeedWhenDeadlineHasPassed() {
+        DistanceMatrix distances = HeldKarpRouteSolverTest.randomManhattan(new Random(3), 40);
+
+        int[] visitOrder = solver.solve(distances, System.nanoTime() - 1);
+
+        assertArrayEquals(nearestNeighbor(distances), visitOrder);
+    }
+
+    private void assertNotLongerThanSeed(DistanceMatrix distances, int stops) {
+        int[] visitOrder = solver.solve(distances, Long.MAX_VALUE);
+
+        HeldKarpRouteSolverTest.assertIsPermutation(visitOrder, stops);
+        assertTrue(distances.tourLength(visitOrder) <= distances.tourLength(nearestNeighbor(distances)));
+    }
+
+    // Same construction and tie-breaking as the solver's seed tour, without node 0
+    private static int[] nearestNeighbor(DistanceMatrix distances) {
+        int[] remaining = new int[distances.size() - 1];
+        for (int i = 0; i < remaining.length; i++) {
+            remaining[i] = i + 1;
+        }
+        int remainingCount = remaining.length;
+        int[] visitOrder = new int[remaining.length];
+
+        int current = 0;
+        for (int position = 0; position < visitOrder.length; position++) {
+            int nearestIndex = 0;
+            for (int i = 1; i < remainingCount; i++) {
+                if (distances.get(current, remaining[i]) < distances.get(current, remaining[nearestIndex])) {
+                    nearestIndex = i;
+                }
+            }
+            current = remaining[nearestIndex];
+            visitOrder[position] = current;
+            remaining[nearestIndex] = remaining[--remainingCount];
+        }
+        return visitOrder;
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.shopyapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.shopyapi.service.IdempotencyService.Execution;
+import org.example.shopyapi.service.IdempotencyService.KeyReusedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyServiceTest {
+    private static final String ENDPOINT = "/api/orders";
+    private static final Map<String, Object> ORDER = Map.of("items", List.of(Map.of("productName", "Apple", "quantity", 1)));
+
+    private final IdempotencyService idempotencyService = new IdempotencyService(new ObjectMapper(), 60, 1000);
+    private final AtomicInteger runs = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void retryWithSameKeyReplaysTheFirstResult() {
+        Execution<String> first = idempotencyService.execute(1L, "key-1", ENDPOINT, ORDER, this::placeOrder);
+        Execution<String> retry = idempotencyService.execute(1L, "key-1", ENDPOINT, ORDER, this::placeOrder);
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertSame(first.result(), retry.result());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void withoutKeyEveryRequestRuns() {
+        idempotencyService.execute(1L, null, ENDPOINT, ORDER, this::placeOrder);
+        Execution<String> second = idempotencyService.execute(1L, null, ENDPOINT, ORDER, this::placeOrder);
+
+        assertFalse(second.replayed());
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void keysArePerUser() {
+        idempotencyService.execute(1L, "key-1", ENDPOINT, ORDER, this::placeOrder);
+        Execution<String> otherUser = idempotencyService.execute(2L, "key-1", ENDPOINT, ORDER, this::placeOrder);
+
+        assertFalse(otherUser.replayed());
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() {
+        idempotencyService.execute(1L, "key-1", ENDPOINT, ORDER, this::placeOrder);
+        Map<String, Object> otherOrder = Map.of("items", List.of(Map.of("productName", "Apple", "quantity", 2)));
+
+        assertThrows(KeyReusedException.class,
+                () -> idempotencyService.execute(1L, "key-1", ENDPOINT, otherOrder, this::placeOrder));
+        assertThrows(KeyReusedException.class,
+                () -> idempotencyService.execute(1L, "key-1", ENDPOINT + "/batch", ORDER, this::placeOrder));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void duplicateWaitsForTheRequestInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Execution<String>> first = executor.submit(() -> idempotencyService.execute(1L, "key-1", ENDPOINT, ORDER, () -> {
+            started.countDown();
+            await(release);
+            return placeOrder();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Future<Execution<String>> duplicate = submitDuplicateAndAwaitBlocked();
+
+        release.countDown();
+        assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+        Execution<String> replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertTrue(replayed.replayed());
+        assertSame(first.get().result(), replayed.result());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void failedActionLeavesNoResultBehind() {
+        IllegalStateException failure = new IllegalStateException("routing failed");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> idempotencyService.execute(1L, "key-1", ENDPOINT, ORDER, () -> {
+                    throw failure;
+                }));
+        assertSame(failure, thrown);
+
+        Execution<String> retry = idempotencyService.execute(1L, "key-1", ENDPOINT, ORDER, this::placeOrder);
+        assertFalse(retry.replayed());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void duplicateInFlightFailsWithTheFirstRequest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("routing failed");
+        Future<Execution<String>> first = executor.submit(() -> idempotencyService.execute(1L, "key-1", ENDPOINT, ORDER, () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Execution<String>> duplicate = submitDuplicateAndAwaitBlocked();
+
+        release.countDown();
+        assertSame(failure, assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS)).getCause());
+        Throwable duplicateFailure = assertThrows(ExecutionException.class, () -> duplicate.get(5, TimeUnit.SECONDS)).getCause();
+        assertSame(failure, duplicateFailure);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void validatesKeys() {
+        assertTrue(IdempotencyService.isValidKey("3f1c2a7e-0b7d-4c51-9a7c-1f0e8d2b6a90"));
+        assertFalse(IdempotencyService.isValidKey(""));
+        assertFalse(IdempotencyService.isValidKey("a".repeat(256)));
+        assertFalse(IdempotencyService.isValidKey("line\nbreak"));
+        assertFalse(IdempotencyService.isValidKey("naïve"));
+    }
+
+    // Returns once the duplicate is parked waiting for the first request's result
+    private Future<Execution<String>> submitDuplicateAndAwaitBlocked() throws InterruptedException {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        Future<Execution<String>> duplicate = executor.submit(() -> {
+            thread.set(Thread.currentThread());
+            return idempotencyService.execute(1L, "key-1", ENDPOINT, ORDER, this::placeOrder);
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.get() == null || thread.get().getState() != Thread.State.WAITING) {
+            assertTrue(System.nanoTime() < deadline, "Duplicate did not wait for the request in flight");
+            Thread.sleep(1);
+        }
+        assertFalse(duplicate.isDone());
+        return duplicate;
+    }
+
+    private String placeOrder() {
+        return "order-" + runs.incrementAndGet();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.shopyapi.service;
+
+import org.example.shopyapi.dto.PageDto;
+import org.example.shopyapi.dto.ProductDto;
+import org.example.shopyapi.dto.ProductListRequestDto;
+import org.example.shopyapi.model.Point;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ListingCursorTest {
+    private static final long USER_ID = 7L;
+
+    @Test
+    void roundTripsIdAndNameCursors() {
+        assertEquals(new ListingCursor("id", 42L, null), ListingCursor.decode(ListingCursor.encode("id", 42L, null), "id"));
+        assertEquals(new ListingCursor("name", 42L, "Apple"), ListingCursor.decode(ListingCursor.encode("name", 42L, "Apple"), "name"));
+        // Everything after the id is the name, separators and non-ASCII included
+        assertEquals(new ListingCursor("name", 1L, "a:b:c ünï"), ListingCursor.decode(ListingCursor.encode("name", 1L, "a:b:c ünï"), "name"));
+        assertEquals(new ListingCursor("name", 1L, ""), ListingCursor.decode(ListingCursor.encode("name", 1L, ""), "name"));
+    }
+
+    @Test
+    void tokensAreUrlSafe() {
+        String token = ListingCursor.encode("name", Long.MAX_VALUE, "?&/+= ~~~");
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSort() {
+        String idCursor = ListingCursor.encode("id", 5L, null);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ListingCursor.decode(idCursor, "name"));
+        assertTrue(e.getMessage().startsWith("Invalid cursor"));
+    }
+
+    @Test
+    void rejectsTamperedAndMalformedTokens() {
+        for (String token : List.of(
+                "",
+                "not base64!",
+                encodeRaw("id"),
+                encodeRaw("id:"),
+                encodeRaw("id:abc"),
+                encodeRaw("id:99999999999999999999"),
+                encodeRaw("other:5"))) {
+            assertThrows(IllegalArgumentException.class, () -> ListingCursor.decode(token, "id"), token);
+        }
+        assertThrows(IllegalArgumentException.class, () -> ListingCursor.decode(encodeRaw("name"), "name"));
+    }
+
+    @Test
+    void nameKeysetPagesVisitEveryRowOnceWithIdAsTiebreak() {
+        // Duplicate names straddle the page boundaries
+        List<ProductDto> rows = List.of(
+                product(3, "Apple"), product(1, "Apple"), product(8, "Banana"), product(2, "Apple"),
+                product(5, "Cherry"), product(4, "Banana"), product(6, "Apple"), product(7, "Banana"));
+
+        List<ProductDto> listed = listAll(rows, "name", 2);
+
+        assertEquals(rows.stream().sorted(Comparator.comparing(ProductDto::name).thenComparing(ProductDto::id)).toList(), listed);
+    }
+
+    @Test
+    void idKeysetPagesVisitEveryRowOnce() {
+        List<ProductDto> rows = List.of(product(9, "Apple"), product(2, "Apple"), product(5, "Banana"), product(1, "Cherry"), product(7, "Apple"));
+
+        List<ProductDto> listed = listAll(rows, "id", 2);
+
+        assertEquals(rows.stream().sorted(Comparator.comparing(ProductDto::id)).toList(), listed);
+    }
+
+    // Follows the cursors of ProductListingService over an in-memory table that evaluates
+    // the keyset condition and order of the generated SQL
+    @SuppressWarnings("unchecked")
+    private static List<ProductDto> listAll(List<ProductDto> table, String sort, int pageSize) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            Object[] args = (Object[]) invocation.getRawArguments()[2];
+            Stream<ProductDto> result = table.stream();
+            if (sql.contains("(name, id) > (?, ?)")) {
+                String name = (String) args[1];
+                long id = (Long) args[2];
+                result = result.filter(row -> row.name().compareTo(name) > 0 || row.name().equals(name) && row.id() > id);
+            } else if (sql.contains("id > ?")) {
+                long id = (Long) args[1];
+                result = result.filter(row -> row.id() > id);
+            }
+            Comparator<ProductDto> order = sql.endsWith("order by name, id limit ?")
+                    ? Comparator.comparing(ProductDto::name).thenComparing(ProductDto::id)
+                    : Comparator.comparing(ProductDto::id);
+            return result.sorted(order).limit((Integer) args[args.length - 1]).toList();
+        }).when(jdbcTemplate).query(anyString(), any(RowMapper.class), any(Object[].class));
+
+        ProductCache productCache = mock(ProductCache.class);
+        when(productCache.page(anyLong(), any(), any())).thenAnswer(invocation -> invocation.<Supplier<PageDto<ProductDto>>>getArgument(2).get());
+        ProductListingService listingService = new ProductListingService(jdbcTemplate, productCache, 100, 1000, 500);
+
+        List<ProductDto> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            PageDto<ProductDto> page = listingService.listPage(USER_ID,
+                    new ProductListRequestDto(null, null, null, null, null, sort, cursor, pageSize));
+            assertTrue(page.items().size() <= pageSize);
+            listed.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null && listed.size() <= table.size());
+        assertNull(cursor);
+        return listed;
+    }
+
+    private static ProductDto product(long id, String name) {
+        return new ProductDto(id, name, 1.0, 1, new Point((int) id, 0));
+    }
+
+    private static String encodeRaw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
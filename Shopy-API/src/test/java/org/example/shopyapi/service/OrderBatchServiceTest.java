@@ -0,0 +1,91 @@
+package org.example.shopyapi.service;
+
+import org.example.shopyapi.dto.OrderItemDto;
+import org.example.shopyapi.dto.PlaceOrderRequestDto;
+import org.example.shopyapi.model.OrderItem;
+import org.example.shopyapi.model.OrderResult;
+import org.example.shopyapi.model.OrderStatus;
+import org.example.shopyapi.model.Point;
+import org.example.shopyapi.model.User;
+import org.example.shopyapi.service.OrderService.StockReservation;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderBatchServiceTest {
+    private final OrderService orderService = mock(OrderService.class);
+    private final RoutingService routingService = mock(RoutingService.class);
+
+    @Test
+    void ordersOfDifferentUsersAreNeverPickedInOneTour() throws Exception {
+        // Interleaved shelves: clustered by proximity alone, all four orders would share one tour
+        Map<String, StockReservation> reservations = Map.of(
+                "a1", reservation(1L, new Point(10, 0)),
+                "b1", reservation(2L, new Point(10, 1)),
+                "a2", reservation(1L, new Point(10, 2)),
+                "b2", reservation(2L, new Point(10, 3)));
+        when(orderService.reserveStock(any(), anyString()))
+                .thenAnswer(invocation -> reservations.get(invocation.<String>getArgument(1)));
+        when(routingService.calculateOptimalRoute(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        AtomicLong nextOrderId = new AtomicLong(1);
+        when(orderService.saveBatchedOrders(anyList(), anyList())).thenAnswer(invocation -> invocation.<List<StockReservation>>getArgument(0).stream()
+                .map(reservation -> new OrderResult(nextOrderId.getAndIncrement(), OrderStatus.SUCCESS, "ok", reservation.locations()))
+                .toList());
+        OrderBatchService batchService = new OrderBatchService(orderService, routingService, 4, 60_000, 4);
+
+        List<CompletableFuture<OrderResult>> results = List.of(
+                batchService.submit(request(), "a1"),
+                batchService.submit(request(), "b1"),
+                batchService.submit(request(), "a2"),
+                batchService.submit(request(), "b2"));
+
+        for (CompletableFuture<OrderResult> result : results) {
+            assertEquals(OrderStatus.SUCCESS, result.get(5, TimeUnit.SECONDS).status());
+        }
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockReservation>> tours = ArgumentCaptor.forClass(List.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Point>> routes = ArgumentCaptor.forClass(List.class);
+        verify(orderService, times(2)).saveBatchedOrders(tours.capture(), routes.capture());
+
+        Set<Long> tourUsers = new HashSet<>();
+        for (int i = 0; i < 2; i++) {
+            List<StockReservation> tour = tours.getAllValues().get(i);
+            assertEquals(2, tour.size());
+            long userId = tour.get(0).user().getId();
+            assertTrue(tour.stream().allMatch(reservation -> reservation.user().getId() == userId));
+            assertTrue(tourUsers.add(userId));
+            // The tour only passes the shelves of its own user
+            assertEquals(Set.copyOf(tour.stream().flatMap(reservation -> reservation.locations().stream()).toList()),
+                    Set.copyOf(routes.getAllValues().get(i)));
+        }
+    }
+
+    private static StockReservation reservation(long userId, Point location) {
+        User user = new User();
+        user.setId(userId);
+        return new StockReservation(user, List.of(new OrderItem("Apple", 1)), List.of(location), Map.of(userId, 1), null);
+    }
+
+    private static PlaceOrderRequestDto request() {
+        return new PlaceOrderRequestDto(List.of(new OrderItemDto(1L, "Apple", 1)));
+    }
+}
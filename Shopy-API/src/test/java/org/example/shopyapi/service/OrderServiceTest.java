@@ -0,0 +1,84 @@
+package org.example.shopyapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.shopyapi.dto.OrderItemDto;
+import org.example.shopyapi.dto.PlaceOrderRequestDto;
+import org.example.shopyapi.model.Order;
+import org.example.shopyapi.model.Point;
+import org.example.shopyapi.model.User;
+import org.example.shopyapi.repository.ArchivedOrderRepository;
+import org.example.shopyapi.repository.OrderOutboxRepository;
+import org.example.shopyapi.repository.OrderRepository;
+import org.example.shopyapi.repository.PickTourRepository;
+import org.example.shopyapi.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceTest {
+    private static final String EMAIL = "owner@example.com";
+    private static final Map<Long, Integer> RESERVED = Map.of(5L, 2);
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final StockReservationService stockReservationService = mock(StockReservationService.class);
+    private final RoutingService routingService = mock(RoutingService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final User user = new User();
+    private final OrderService orderService = new OrderService(orderRepository, stockReservationService, routingService, userRepository,
+            mock(PickTourRepository.class), mock(ArchivedOrderRepository.class), mock(OrderOutboxRepository.class),
+            new OrderMetrics(new SimpleMeterRegistry()));
+
+    @BeforeEach
+    void setUp() {
+        user.setId(7L);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        when(stockReservationService.reserveStock(any(), any())).thenReturn(
+                new StockReservationService.StockResult(List.of(), List.of(new Point(3, 4)), RESERVED, null));
+    }
+
+    @Test
+    void stockIsGivenBackWhenRoutingFails() {
+        IllegalStateException failure = new IllegalStateException("no path");
+        when(routingService.calculateOptimalRoute(anyList())).thenThrow(failure);
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> orderService.processOrder(request(), EMAIL)));
+        verify(stockReservationService).releaseStock(user, RESERVED);
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void stockIsGivenBackWhenTheOrderCannotBeSaved() {
+        IllegalStateException failure = new IllegalStateException("insert failed");
+        when(routingService.calculateOptimalRoute(anyList())).thenReturn(List.of(new Point(0, 0), new Point(3, 4)));
+        when(orderRepository.save(any(Order.class))).thenThrow(failure);
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> orderService.processOrder(request(), EMAIL)));
+        verify(stockReservationService).releaseStock(user, RESERVED);
+    }
+
+    @Test
+    void savedOrderKeepsItsStock() {
+        when(routingService.calculateOptimalRoute(anyList())).thenReturn(List.of(new Point(0, 0), new Point(3, 4)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        orderService.processOrder(request(), EMAIL);
+
+        verify(stockReservationService, never()).releaseStock(any(), any());
+    }
+
+    private static PlaceOrderRequestDto request() {
+        return new PlaceOrderRequestDto(List.of(new OrderItemDto(5L, "Apple", 2)));
+    }
+}
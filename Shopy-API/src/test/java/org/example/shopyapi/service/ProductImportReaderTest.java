@@ -0,0 +1,106 @@
+package org.example.shopyapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.shopyapi.dto.CreateProductRequestDto;
+import org.example.shopyapi.model.Point;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductImportReaderTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsCsvColumnsInAnyOrder() {
+        List<ProductImportReader.Row> rows = readCsv("""
+                y,x,quantity,price,name
+                4,3,10,1.5,Apple
+                """);
+
+        assertEquals(List.of(new ProductImportReader.Row(1, new CreateProductRequestDto("Apple", 1.5, 10, new Point(3, 4)), null)), rows);
+    }
+
+    @Test
+    void readsQuotedCsvFields() {
+        List<ProductImportReader.Row> rows = readCsv("""
+                name,price,quantity,x,y
+                "Quoted, Name",2.0,1,0,1
+                "Say ""cheese""\",2.0,1,0,2
+                "",2.0,1,0,3
+                """);
+
+        assertEquals("Quoted, Name", rows.get(0).product().name());
+        assertEquals(new Point(0, 1), rows.get(0).product().location());
+        assertEquals("Say \"cheese\"", rows.get(1).product().name());
+        assertEquals("", rows.get(2).product().name());
+    }
+
+    @Test
+    void malformedCsvRowsAreReportedAndReadingContinues() {
+        List<ProductImportReader.Row> rows = readCsv("""
+                name,price,quantity,x,y
+                Apple,abc,1,0,0
+                Pear,1.0,1,0
+
+                Plum,1.0,1,0,"1,5"
+                Kiwi,1.0,2,5,5
+                """);
+
+        assertEquals(4, rows.size());
+        assertTrue(rows.get(0).error().startsWith("Invalid number"));
+        assertEquals("Expected 5 columns, found 4", rows.get(1).error());
+        // The blank line is skipped and not counted
+        assertEquals(3, rows.get(2).number());
+        assertTrue(rows.get(2).error().startsWith("Invalid number"));
+        assertNull(rows.get(3).error());
+        assertEquals(4, rows.get(3).number());
+    }
+
+    @Test
+    void rejectsUnusableCsvBodies() {
+        assertThrows(IllegalArgumentException.class, () -> readCsv(""));
+        assertThrows(IllegalArgumentException.class, () -> readCsv("name,price,quantity,x\nApple,1.0,1,0\n"));
+    }
+
+    @Test
+    void readsJsonRowsAndReportsInvalidOnes() {
+        List<ProductImportReader.Row> rows = readJson("""
+                [{"name":"Apple","price":1.5,"quantity":10,"location":{"x":3,"y":4}},
+                 {"name":"Pear","price":"abc","quantity":1,"location":{"x":0,"y":0}},
+                 {"name":"Plum","price":1.0,"quantity":1,"location":{"x":1,"y":1}}]
+                """);
+
+        assertEquals(3, rows.size());
+        assertEquals(new CreateProductRequestDto("Apple", 1.5, 10, new Point(3, 4)), rows.get(0).product());
+        assertNull(rows.get(1).product());
+        assertTrue(rows.get(1).error().startsWith("Invalid product"));
+        assertEquals(3, rows.get(2).number());
+        assertEquals("Plum", rows.get(2).product().name());
+    }
+
+    @Test
+    void rejectsMalformedJson() {
+        assertThrows(IllegalArgumentException.class, () -> readJson("{\"name\":\"Apple\"}"));
+        assertThrows(IllegalArgumentException.class, () -> readJson("[{\"name\":\"Apple\"},{\"name\":"));
+    }
+
+    private List<ProductImportReader.Row> readCsv(String body) {
+        List<ProductImportReader.Row> rows = new ArrayList<>();
+        ProductImportReader.readCsv(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), rows::add);
+        return rows;
+    }
+
+    private List<ProductImportReader.Row> readJson(String body) {
+        List<ProductImportReader.Row> rows = new ArrayList<>();
+        ProductImportReader.readJson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), objectMapper, rows::add);
+        return rows;
+    }
+}
@@ -0,0 +1,192 @@
+package org.example.shopyapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.shopyapi.dto.ProductImportResultDto;
+import org.example.shopyapi.dto.ProductImportResultDto.RowStatus;
+import org.example.shopyapi.model.User;
+import org.example.shopyapi.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Without a database: the user's stored products are fed to the row handler
+// and the JDBC batches are captured.
+class ProductImportServiceTest {
+    private static final String EMAIL = "owner@example.com";
+    private static final long USER_ID = 7L;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ProductIdAllocator productIdAllocator = mock(ProductIdAllocator.class);
+    private final InventoryEventService inventoryEventService = mock(InventoryEventService.class);
+    private final ProductCache productCache = mock(ProductCache.class);
+    // id, name, price, x, y
+    private final List<Object[]> storedProducts = new ArrayList<>();
+
+    private record Batch(String sql, List<List<Object>> rows) { }
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(USER_ID);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        // Ids are handed out consecutively, like blocks reserved from the sequence table
+        AtomicLong nextId = new AtomicLong(100);
+        when(productIdAllocator.nextIds(eq(USER_ID), anyInt()))
+                .thenAnswer(invocation -> nextId.getAndAdd(invocation.<Integer>getArgument(1)));
+
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] product : storedProducts) {
+                ResultSet resultSet = mock(ResultSet.class);
+                when(resultSet.getLong(1)).thenReturn((Long) product[0]);
+                when(resultSet.getString(2)).thenReturn((String) product[1]);
+                when(resultSet.getDouble(3)).thenReturn((Double) product[2]);
+                when(resultSet.getInt(4)).thenReturn((Integer) product[3]);
+                when(resultSet.getInt(5)).thenReturn((Integer) product[4]);
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(USER_ID));
+    }
+
+    @Test
+    void duplicatesWithinOneUploadFollowTheSingleCreateRules() {
+        ProductImportResultDto result = service(1000).importCsv(body("""
+                name,price,quantity,x,y
+                Fig,1.0,3,7,7
+                Fig,1.0,4,7,7
+                Fig,2.0,1,7,7
+                Fig,1.0,1,8,8
+                Lime,1.0,1,7,7
+                Plum,1.0,bad,1,1
+                """), EMAIL);
+
+        assertEquals(1, result.created());
+        assertEquals(1, result.updated());
+        assertEquals(4, result.failed());
+        assertEquals(List.of(RowStatus.CREATED, RowStatus.UPDATED, RowStatus.FAILED, RowStatus.FAILED, RowStatus.FAILED, RowStatus.FAILED),
+                result.rows().stream().map(ProductImportResultDto.Row::status).toList());
+        assertEquals(100L, result.rows().get(0).productId());
+        assertEquals(100L, result.rows().get(1).productId());
+        assertEquals("Product with name 'Fig' at location [7, 7] already exists but with a different price.", result.rows().get(2).error());
+        assertEquals("Product with name 'Fig' already exists at a different location.", result.rows().get(3).error());
+        assertEquals("Location [7, 7] is already occupied by product: Fig", result.rows().get(4).error());
+
+        // The second Fig row is added to the pending insert instead of becoming an update
+        assertEquals(List.of(new Batch("insert", List.of(List.of(100L, "Fig", 1.0, 7, 7, 7, USER_ID)))), batches());
+        verify(productCache).evictUser(USER_ID);
+        verify(inventoryEventService).productsReplaced(USER_ID);
+    }
+
+    @Test
+    void storedProductsAreRestockedOrConflict() {
+        storedProducts.add(new Object[] {5L, "Apple", 1.0, 1, 1});
+
+        ProductImportResultDto result = service(1000).importJson(body("""
+                [{"name":"Apple","price":1.0,"quantity":2,"location":{"x":1,"y":1}},
+                 {"name":"Apple","price":1.0,"quantity":3,"location":{"x":1,"y":1}},
+                 {"name":"Apple","price":1.0,"quantity":1,"location":{"x":2,"y":2}},
+                 {"name":"Pear","price":1.0,"quantity":1,"location":{"x":1,"y":1}}]
+                """), EMAIL);
+
+        assertEquals(0, result.created());
+        assertEquals(2, result.updated());
+        assertEquals(2, result.failed());
+        assertEquals(5L, result.rows().get(0).productId());
+        // Both additions to the same product are merged into one update
+        assertEquals(List.of(new Batch("update", List.of(List.of(5, 5L, USER_ID)))), batches());
+    }
+
+    @Test
+    void writesInChunksAcrossRowBoundaries() {
+        ProductImportResultDto result = service(2).importCsv(body("""
+                name,price,quantity,x,y
+                Fig,1.0,3,7,7
+                Kiwi,1.0,1,1,0
+                Fig,1.0,4,7,7
+                Pear,1.0,1,2,0
+                Plum,1.0,1,3,0
+                Lime,1.0,1,4,0
+                Date,1.0,1,5,0
+                """), EMAIL);
+
+        assertEquals(6, result.created());
+        assertEquals(1, result.updated());
+        // A full chunk is written as soon as it fills, the rest when the import finishes.
+        // Fig was written with the first chunk, so its second row becomes a stock update by id.
+        assertEquals(List.of(
+                new Batch("insert", List.of(List.of(100L, "Fig", 1.0, 3, 7, 7, USER_ID), List.of(101L, "Kiwi", 1.0, 1, 1, 0, USER_ID))),
+                new Batch("insert", List.of(List.of(102L, "Pear", 1.0, 1, 2, 0, USER_ID))),
+                new Batch("update", List.of(List.of(4, 100L, USER_ID))),
+                new Batch("insert", List.of(List.of(103L, "Plum", 1.0, 1, 3, 0, USER_ID), List.of(104L, "Lime", 1.0, 1, 4, 0, USER_ID))),
+                new Batch("insert", List.of(List.of(105L, "Date", 1.0, 1, 5, 0, USER_ID)))), batches());
+        assertEquals(100L, result.rows().get(2).productId());
+        assertEquals(105L, result.rows().get(6).productId());
+    }
+
+    @Test
+    void failedRowsDoNotWriteOrNotify() {
+        ProductImportResultDto result = service(1).importCsv(body("""
+                name,price,quantity,x,y
+                Fig,abc,3,7,7
+                Kiwi,1.0,1,1
+                ,1.0,1,1,1
+                """), EMAIL);
+
+        assertEquals(3, result.failed());
+        assertTrue(batches().isEmpty());
+        verify(productIdAllocator, never()).nextIds(anyLong(), anyInt());
+        verify(productCache, never()).evictUser(anyLong());
+        verify(inventoryEventService, never()).productsReplaced(anyLong());
+    }
+
+    private ProductImportService service(int chunkSize) {
+        return new ProductImportService(jdbcTemplate, userRepository, productIdAllocator, inventoryEventService,
+                productCache, new ObjectMapper(), chunkSize);
+    }
+
+    // Every JDBC batch in the order it was written, as "insert" or "update" with its rows
+    @SuppressWarnings("unchecked")
+    private List<Batch> batches() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeast(0)).batchUpdate(sql.capture(), rows.capture());
+        List<Batch> batches = new ArrayList<>();
+        for (int i = 0; i < sql.getAllValues().size(); i++) {
+            batches.add(new Batch(sql.getAllValues().get(i).startsWith("insert") ? "insert" : "update",
+                    rows.getAllValues().get(i).stream().map(List::of).toList()));
+        }
+        return batches;
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.shopyapi.service;
+
+import org.example.shopyapi.model.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenRevocationServiceTest {
+    private final JwtService jwtService = new JwtService(100);
+    private final TokenRevocationService tokenRevocationService = new TokenRevocationService(24);
+
+    @Test
+    void loginRightAfterLogoutIsNotRevoked() throws InterruptedException {
+        User user = user(7L);
+        String oldToken = jwtService.generateToken(user);
+        Thread.sleep(2);
+
+        // Logout and the next login within the same second, usually the same millisecond
+        tokenRevocationService.revokeTokens(user.getId());
+        String newToken = jwtService.generateToken(user);
+
+        assertTrue(isRevoked(user, oldToken));
+        assertFalse(isRevoked(user, newToken));
+    }
+
+    @Test
+    void onlyTheLoggedOutUserIsRevoked() {
+        User user = user(7L);
+        User otherUser = user(8L);
+        String otherToken = jwtService.generateToken(otherUser);
+
+        tokenRevocationService.revokeTokens(user.getId());
+
+        assertFalse(isRevoked(otherUser, otherToken));
+    }
+
+    @Test
+    void comparesMilliseconds() {
+        long before = System.currentTimeMillis();
+        tokenRevocationService.revokeTokens(7L);
+
+        assertTrue(tokenRevocationService.isRevoked(7L, before - 1));
+        assertFalse(tokenRevocationService.isRevoked(7L, System.currentTimeMillis()));
+        assertFalse(tokenRevocationService.isRevoked(8L, before - 1));
+    }
+
+    private boolean isRevoked(User user, String token) {
+        return tokenRevocationService.isRevoked(user.getId(), JwtService.issuedAtMillis(jwtService.verifyToken(token)));
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("user" + id + "@example.com");
+        user.setName("User " + id);
+        return user;
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.interfaces;
+
+import org.example.routing.DistanceMatrix;
+
+public interface IRouteSolver {
+    // Returns the indices 1..n of the pickup nodes in the order they should be visited,
+    // for a closed tour that leaves from and returns to node 0.
+    int[] solve(DistanceMatrix distances, long deadlineNanos);
+}
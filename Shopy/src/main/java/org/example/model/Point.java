@@ -1,6 +1,11 @@
 package org.example.model;
 
 public record Point(int x, int y) {
+    // Both coordinates in one long, the key of the inventory location index
+    public long packed() {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
     @Override
     public String toString() {
         return "[" + x + ", " + y + "]";
@@ -1,12 +1,25 @@
 package org.example.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Locale;
 
 public class Product {
+    // Stock is changed with compare-and-set on this handle, so concurrent orders never lose an update
+    private static final VarHandle QUANTITY;
+
+    static {
+        try {
+            QUANTITY = MethodHandles.lookup().findVarHandle(Product.class, "quantity", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private String name;
-    private double price;
-    private int quantity;
-    private Point location;
+    private volatile double price;
+    private volatile int quantity;
+    private volatile Point location;
 
     public Product(String name, double price, int quantity, Point location) {
         this.name = name;
@@ -54,14 +67,27 @@ public class Product {
     }
 
     public void reduceStock(int quantityToReduce) {
-        if (quantityToReduce > 0 && this.quantity >= quantityToReduce) {
-            setQuantity(this.quantity - quantityToReduce);
+        tryReduceStock(quantityToReduce);
+    }
+
+    // Takes the stock only when enough is available, returns false otherwise
+    public boolean tryReduceStock(int quantityToReduce) {
+        if (quantityToReduce <= 0) {
+            return false;
         }
+        int current;
+        do {
+            current = this.quantity;
+            if (current < quantityToReduce) {
+                return false;
+            }
+        } while (!QUANTITY.compareAndSet(this, current, current - quantityToReduce));
+        return true;
     }
 
     public void addStock(int quantityToAdd) {
         if (quantityToAdd > 0) {
-            setQuantity(this.quantity + quantityToAdd);
+            QUANTITY.getAndAdd(this, quantityToAdd);
         }
     }
 
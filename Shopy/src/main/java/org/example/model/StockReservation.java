@@ -0,0 +1,18 @@
+package org.example.model;
+
+import java.util.List;
+import java.util.Map;
+
+// Stock taken for one order: the quantity taken per product, or the lines that could not be taken.
+public record StockReservation(Map<Product, Integer> reservedQuantities, List<String> missingItems) {
+    public boolean isReserved() {
+        return missingItems.isEmpty();
+    }
+
+    public List<Point> locations() {
+        return reservedQuantities.keySet().stream()
+                .map(Product::getLocation)
+                .distinct()
+                .toList();
+    }
+}
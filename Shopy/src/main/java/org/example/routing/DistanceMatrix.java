@@ -0,0 +1,63 @@
+package org.example.routing;
+
+// Distances between route nodes stored as packed x/y coordinate arrays.
+// Node 0 is always the warehouse start point, nodes 1..n are the pickup locations.
+// Up to PRECOMPUTE_LIMIT nodes the Manhattan distances are precomputed into a flat row-major array,
+// above that they are computed on the fly so large pick lists do not allocate an n^2 matrix.
+public final class DistanceMatrix {
+    public static final int PRECOMPUTE_LIMIT = 512;
+
+    private final int size;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] distances;
+
+    private DistanceMatrix(int[] xs, int[] ys, int[] distances) {
+        this.size = xs.length;
+        this.xs = xs;
+        this.ys = ys;
+        this.distances = distances;
+    }
+
+    public static DistanceMatrix manhattan(int[] xs, int[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        int size = xs.length;
+        if (size > PRECOMPUTE_LIMIT) {
+            return new DistanceMatrix(xs, ys, null);
+        }
+
+        int[] distances = new int[size * size];
+        for (int a = 0; a < size; a++) {
+            int row = a * size;
+            int x = xs[a];
+            int y = ys[a];
+            for (int b = 0; b < size; b++) {
+                distances[row + b] = Math.abs(x - xs[b]) + Math.abs(y - ys[b]);
+            }
+        }
+        return new DistanceMatrix(xs, ys, distances);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int a, int b) {
+        if (distances != null) {
+            return distances[a * size + b];
+        }
+        return Math.abs(xs[a] - xs[b]) + Math.abs(ys[a] - ys[b]);
+    }
+
+    public int tourLength(int[] visitOrder) {
+        int length = 0;
+        int previous = 0;
+        for (int node : visitOrder) {
+            length += get(previous, node);
+            previous = node;
+        }
+        return length + get(previous, 0);
+    }
+}
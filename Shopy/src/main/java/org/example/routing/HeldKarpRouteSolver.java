@@ -0,0 +1,74 @@
+package org.example.routing;
+
+import org.example.interfaces.IRouteSolver;
+
+import java.util.Arrays;
+
+// Exact solver using the Held-Karp bitmask dynamic programming algorithm.
+// Runs in O(2^n * n^2) time and O(2^n * n) memory, so it is only used for small pick lists.
+public class HeldKarpRouteSolver implements IRouteSolver {
+    public static final int MAX_STOPS = 20;
+
+    @Override
+    public int[] solve(DistanceMatrix distances, long deadlineNanos) {
+        // Bit j of a mask stands for pickup node j + 1.
+        int n = distances.size() - 1;
+        if (n > MAX_STOPS) {
+            throw new IllegalArgumentException("Held-Karp solver supports at most " + MAX_STOPS + " stops, got " + n);
+        }
+        if (n <= 1) {
+            return n == 1 ? new int[] {1} : new int[0];
+        }
+
+        int fullMask = (1 << n) - 1;
+        int[] cost = new int[(1 << n) * n];
+        int[] parent = new int[(1 << n) * n];
+        Arrays.fill(cost, Integer.MAX_VALUE);
+
+        for (int j = 0; j < n; j++) {
+            cost[(1 << j) * n + j] = distances.get(0, j + 1);
+            parent[(1 << j) * n + j] = -1;
+        }
+
+        for (int mask = 1; mask <= fullMask; mask++) {
+            for (int last = 0; last < n; last++) {
+                int current = cost[mask * n + last];
+                if ((mask & (1 << last)) == 0 || current == Integer.MAX_VALUE) {
+                    continue;
+                }
+                for (int next = 0; next < n; next++) {
+                    if ((mask & (1 << next)) != 0) {
+                        continue;
+                    }
+                    int nextMask = mask | (1 << next);
+                    int candidate = current + distances.get(last + 1, next + 1);
+                    if (candidate < cost[nextMask * n + next]) {
+                        cost[nextMask * n + next] = candidate;
+                        parent[nextMask * n + next] = last;
+                    }
+                }
+            }
+        }
+
+        int bestLast = 0;
+        int bestCost = Integer.MAX_VALUE;
+        for (int last = 0; last < n; last++) {
+            int total = cost[fullMask * n + last] + distances.get(last + 1, 0);
+            if (total < bestCost) {
+                bestCost = total;
+                bestLast = last;
+            }
+        }
+
+        int[] visitOrder = new int[n];
+        int mask = fullMask;
+        int last = bestLast;
+        for (int position = n - 1; position >= 0; position--) {
+            visitOrder[position] = last + 1;
+            int previous = parent[mask * n + last];
+            mask &= ~(1 << last);
+            last = previous;
+        }
+        return visitOrder;
+    }
+}
@@ -4,8 +4,12 @@ import org.example.helper.Result;
 import org.example.interfaces.IInventoryService;
 import org.example.model.Point;
 import org.example.model.Product;
+import org.example.model.StockReservation;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -13,26 +17,31 @@ import java.util.concurrent.ConcurrentHashMap;
 public class InventoryService implements IInventoryService {
     // Using a ConcurrentHashMap for thread safety
     private final Map<String, Product> products = new ConcurrentHashMap<>();
+    // Secondary index by packed location, a location is claimed with putIfAbsent before the
+    // product becomes visible by name. Moving or removing a product happens under its monitor.
+    private final Map<Long, Product> productsByLocation = new ConcurrentHashMap<>();
 
     @Override
     public Result createProduct(Product newProduct) {
         Point newLocation = newProduct.getLocation();
 
-        for (Product existingProduct : products.values()) {
-            if (existingProduct.getLocation().equals(newLocation)) {
-                if (existingProduct.getName().equalsIgnoreCase(newProduct.getName())) {
-                    existingProduct.addStock(newProduct.getQuantity());
-                    return new Result(true, "Product stock updated successfully.");
-                } else {
-                    return new Result(false, String.format(
-                            "Cannot add product '%s'. Location %s is already occupied by a different product: '%s'.",
-                            newProduct.getName(), newLocation, existingProduct.getName()
-                    ));
-                }
+        Product existingProduct = productsByLocation.putIfAbsent(newLocation.packed(), newProduct);
+        if (existingProduct != null) {
+            if (existingProduct.getName().equalsIgnoreCase(newProduct.getName())) {
+                existingProduct.addStock(newProduct.getQuantity());
+                return new Result(true, "Product stock updated successfully.");
+            } else {
+                return new Result(false, String.format(
+                        "Cannot add product '%s'. Location %s is already occupied by a different product: '%s'.",
+                        newProduct.getName(), newLocation, existingProduct.getName()
+                ));
             }
         }
 
-        products.put(newProduct.getName().toLowerCase(), newProduct);
+        Product replacedProduct = products.put(newProduct.getName().toLowerCase(), newProduct);
+        if (replacedProduct != null) {
+            releaseLocation(replacedProduct);
+        }
 
         return new Result(true, "Product added successfully.");
     }
@@ -42,6 +51,11 @@ public class InventoryService implements IInventoryService {
         return Optional.ofNullable(products.get(name.toLowerCase()));
     }
 
+    @Override
+    public Optional<Product> getProductAt(Point location) {
+        return Optional.ofNullable(productsByLocation.get(location.packed()));
+    }
+
     @Override
     public Collection<Product> getAllProducts() {
         return products.values();
@@ -53,21 +67,28 @@ public class InventoryService implements IInventoryService {
 
         if (optionalProduct.isPresent()) {
             Product product = optionalProduct.get();
-            Point currentLocation = product.getLocation();
+            synchronized (product) {
+                // Deleted while waiting for the monitor
+                if (products.get(name.toLowerCase()) != product) {
+                    return new Result(false, "Product not found for update: " + name);
+                }
 
-            if (!currentLocation.equals(newLocation)) {
-                for (Product existingProduct : products.values()) {
-                    if (existingProduct.getLocation().equals(newLocation) &&
-                            !existingProduct.getName().equalsIgnoreCase(name)) {
+                Point currentLocation = product.getLocation();
+                if (!currentLocation.equals(newLocation)) {
+                    Product existingProduct = productsByLocation.putIfAbsent(newLocation.packed(), product);
+                    if (existingProduct != null && existingProduct != product) {
                         return new Result(false, String.format(
                                 "Cannot update location for '%s'. New location %s is already occupied by '%s'.",
                                 name, newLocation, existingProduct.getName()
                         ));
                     }
                 }
-            }
 
-            product.updateDetails(newQuantity, newPrice, newLocation);
+                product.updateDetails(newQuantity, newPrice, newLocation);
+                if (!currentLocation.equals(newLocation)) {
+                    productsByLocation.remove(currentLocation.packed(), product);
+                }
+            }
             return new Result(true, "Product updated successfully.");
         } else {
             return new Result(false, "Product not found for update: " + name);
@@ -77,18 +98,73 @@ public class InventoryService implements IInventoryService {
     @Override
     public boolean deleteProduct(String name) {
         Product removedProduct = products.remove(name.toLowerCase());
-        return removedProduct != null;
+        if (removedProduct == null) {
+            return false;
+        }
+        releaseLocation(removedProduct);
+        return true;
     }
 
     @Override
     public Result reduceStock(String name, int quantityToReduce) {
         Optional<Product> productOpt = getProduct(name.toLowerCase());
 
-        if (productOpt.isPresent()) {
-            productOpt.get().reduceStock(quantityToReduce);
-            return new Result(true, "Product reduced successfully.");
-        } else {
+        if (productOpt.isEmpty()) {
             return new Result(false, "Product not found for stock reduction: " + name);
         }
+        if (!productOpt.get().tryReduceStock(quantityToReduce)) {
+            return new Result(false, "Not enough stock of " + name + " to reduce by " + quantityToReduce);
+        }
+        return new Result(true, "Product reduced successfully.");
+    }
+
+    // Takes the stock of every requested product or of none, without a global lock.
+    // Every line is taken with a compare-and-set on its product; when a line cannot be taken
+    // the lines taken so far are given back. Another order may briefly see that stock as taken.
+    @Override
+    public StockReservation reserveStock(Map<String, Integer> requestedQuantities) {
+        Map<Product, Integer> reserved = new LinkedHashMap<>();
+        List<String> missingItems = new ArrayList<>();
+
+        for (Map.Entry<String, Integer> entry : requestedQuantities.entrySet()) {
+            String productName = entry.getKey();
+            int requestedQuantity = entry.getValue();
+            Product product = products.get(productName.toLowerCase());
+
+            if (product == null) {
+                missingItems.add(productName + ": product not found");
+            } else if (!missingItems.isEmpty()) {
+                // The order already failed, the remaining lines are only checked to report them all
+                if (product.getQuantity() < requestedQuantity) {
+                    missingItems.add(insufficientStock(product, requestedQuantity));
+                }
+            } else if (product.tryReduceStock(requestedQuantity)) {
+                reserved.merge(product, requestedQuantity, Integer::sum);
+            } else {
+                missingItems.add(insufficientStock(product, requestedQuantity));
+            }
+        }
+
+        StockReservation reservation = new StockReservation(reserved, missingItems);
+        if (!reservation.isReserved()) {
+            releaseStock(reservation);
+            return new StockReservation(Map.of(), missingItems);
+        }
+        return reservation;
+    }
+
+    @Override
+    public void releaseStock(StockReservation reservation) {
+        reservation.reservedQuantities().forEach(Product::addStock);
+    }
+
+    private void releaseLocation(Product product) {
+        synchronized (product) {
+            productsByLocation.remove(product.getLocation().packed(), product);
+        }
+    }
+
+    private String insufficientStock(Product product, int requestedQuantity) {
+        return product.getName() + " (requested " + requestedQuantity + ", available " + product.getQuantity() + ")";
     }
 }
@@ -1,85 +1,91 @@
 package org.example.service;
 
+import org.example.interfaces.IRouteSolver;
 import org.example.interfaces.IRoutingService;
 import org.example.model.Point;
+import org.example.routing.DistanceMatrix;
+import org.example.routing.HeldKarpRouteSolver;
+import org.example.routing.LocalSearchRouteSolver;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class RoutingService implements IRoutingService {
+    private static final int DEFAULT_EXACT_MAX_STOPS = 15;
+    private static final long DEFAULT_TIME_BUDGET_MILLIS = 200;
+
     private final Point WAREHOUSE_START_POINT = new Point(0, 0);
 
-    @Override
-    public List<Point> calculateOptimalRoute(List<Point> pickupLocations) {
-        List<Point> destinationSequence = findDestinationSequence(pickupLocations);
+    private final IRouteSolver exactSolver;
+    private final IRouteSolver heuristicSolver;
+    private final int exactSolverMaxStops;
+    private final long timeBudgetNanos;
+
+    public RoutingService() {
+        this(new HeldKarpRouteSolver(), new LocalSearchRouteSolver(), DEFAULT_EXACT_MAX_STOPS, DEFAULT_TIME_BUDGET_MILLIS);
+    }
 
-        return buildFullPath(destinationSequence);
+    public RoutingService(IRouteSolver exactSolver, IRouteSolver heuristicSolver, int exactSolverMaxStops, long timeBudgetMillis) {
+        this.exactSolver = exactSolver;
+        this.heuristicSolver = heuristicSolver;
+        this.exactSolverMaxStops = exactSolverMaxStops;
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
     }
 
-    // Calculates the optimal route using a Nearest Neighbor heuristic
-    private List<Point> findDestinationSequence(List<Point> pickupLocations) {
+    @Override
+    public List<Point> calculateOptimalRoute(List<Point> pickupLocations) {
         if (pickupLocations == null || pickupLocations.isEmpty()) {
             return List.of(WAREHOUSE_START_POINT, WAREHOUSE_START_POINT);
         }
 
-        List<Point> sequence = new ArrayList<>();
-        List<Point> remaining = new ArrayList<>(pickupLocations);
-        Point currentLocation = WAREHOUSE_START_POINT;
-
-        sequence.add(currentLocation);
-
-        while (!remaining.isEmpty()) {
-            Point nearestLocation = null;
-            int shortestDistance = Integer.MAX_VALUE;
+        // The routing core works on packed coordinates, node 0 is the warehouse start point.
+        int size = pickupLocations.size() + 1;
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        xs[0] = WAREHOUSE_START_POINT.x();
+        ys[0] = WAREHOUSE_START_POINT.y();
+        for (int i = 1; i < size; i++) {
+            Point location = pickupLocations.get(i - 1);
+            xs[i] = location.x();
+            ys[i] = location.y();
+        }
 
-            for (Point location : remaining) {
-                int distance = calculateManhattanDistance(currentLocation, location);
-                if (distance < shortestDistance) {
-                    shortestDistance = distance;
-                    nearestLocation = location;
-                }
-            }
+        int[] visitOrder = findVisitOrder(DistanceMatrix.manhattan(xs, ys));
 
-            if (nearestLocation == null) {
-                throw new IllegalStateException("Routing algorithm failed: Could not determine the next location.");
-            }
-
-            currentLocation = nearestLocation;
-            sequence.add(currentLocation);
-            remaining.remove(currentLocation);
-        }
+        return buildFullPath(xs, ys, visitOrder);
+    }
 
-        sequence.add(WAREHOUSE_START_POINT);
-        return sequence;
+    // Small pick lists are solved exactly with Held-Karp,
+    // larger ones with 2-opt/Or-opt local search within the time budget.
+    private int[] findVisitOrder(DistanceMatrix distances) {
+        long deadlineNanos = System.nanoTime() + timeBudgetNanos;
+        IRouteSolver solver = distances.size() - 1 <= exactSolverMaxStops ? exactSolver : heuristicSolver;
+        return solver.solve(distances, deadlineNanos);
     }
 
-    private List<Point> buildFullPath(List<Point> destinationSequence) {
-        List<Point> fullPath = new ArrayList<>();
-        if (destinationSequence.isEmpty()) {
-            return fullPath;
-        }
+    // Expands the tour 0 -> visitOrder -> 0 into the full path.
+    // Points are only materialised here, at the API boundary.
+    private List<Point> buildFullPath(int[] xs, int[] ys, int[] visitOrder) {
+        List<Point> fullPath = new ArrayList<>(2 * visitOrder.length + 3);
 
-        for (int i = 0; i < destinationSequence.size() - 1; i++) {
-            Point start = destinationSequence.get(i);
-            Point end = destinationSequence.get(i + 1);
+        int start = 0;
+        for (int i = 0; i <= visitOrder.length; i++) {
+            int end = i < visitOrder.length ? visitOrder[i] : 0;
 
-            fullPath.add(start);
+            fullPath.add(new Point(xs[start], ys[start]));
 
             // If the bot needs to move on both axes
             // it adds the intermediate corner point.
             // It moves along the X-axis first then the Y-axis.
-            if (start.x() != end.x() && start.y() != end.y()) {
-                Point corner = new Point(end.x(), start.y());
-                fullPath.add(corner);
+            if (xs[start] != xs[end] && ys[start] != ys[end]) {
+                fullPath.add(new Point(xs[end], ys[start]));
             }
+            start = end;
         }
 
-        fullPath.add(destinationSequence.get(destinationSequence.size() - 1));
+        fullPath.add(new Point(xs[0], ys[0]));
 
         return fullPath;
     }
-
-    private int calculateManhattanDistance(Point p1, Point p2) {
-        return Math.abs(p1.x() - p2.x()) + Math.abs(p1.y() - p2.y());
-    }
 }
@@ -0,0 +1,56 @@
+package org.example.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DistanceMatrixTest {
+
+    @Test
+    void sameDistancesAboveAndBelowPrecomputeLimit() {
+        Random random = new Random(5);
+        int size = DistanceMatrix.PRECOMPUTE_LIMIT + 100;
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        for (int i = 1; i < size; i++) {
+            xs[i] = random.nextInt(2_000) - 1_000;
+            ys[i] = random.nextInt(2_000) - 1_000;
+        }
+
+        // The first PRECOMPUTE_LIMIT nodes are precomputed in one matrix and computed on the fly in the other
+        int limit = DistanceMatrix.PRECOMPUTE_LIMIT;
+        DistanceMatrix precomputed = DistanceMatrix.manhattan(Arrays.copyOf(xs, limit), Arrays.copyOf(ys, limit));
+        DistanceMatrix onTheFly = DistanceMatrix.manhattan(xs, ys);
+
+        for (int a = 0; a < limit; a++) {
+            for (int b = 0; b < limit; b++) {
+                int expected = Math.abs(xs[a] - xs[b]) + Math.abs(ys[a] - ys[b]);
+                assertEquals(expected, precomputed.get(a, b));
+                assertEquals(expected, onTheFly.get(a, b));
+            }
+        }
+
+        int[] visitOrder = new int[limit - 1];
+        for (int i = 0; i < visitOrder.length; i++) {
+            visitOrder[i] = limit - 1 - i;
+        }
+        assertEquals(precomputed.tourLength(visitOrder), onTheFly.tourLength(visitOrder));
+    }
+
+    @Test
+    void tourLengthReturnsToStart() {
+        DistanceMatrix distances = DistanceMatrix.manhattan(new int[] {0, 3, 3}, new int[] {0, 0, 4});
+
+        assertEquals(14, distances.tourLength(new int[] {1, 2}));
+        assertEquals(0, distances.tourLength(new int[0]));
+    }
+
+    @Test
+    void rejectsCoordinateArraysOfDifferentLength() {
+        assertThrows(IllegalArgumentException.class, () -> DistanceMatrix.manhattan(new int[2], new int[3]));
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HeldKarpRouteSolverTest {
+    private final HeldKarpRouteSolver solver = new HeldKarpRouteSolver();
+
+    @Test
+    void matchesBruteForceOnSmallInputs() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int stops = 1 + random.nextInt(8);
+            DistanceMatrix distances = randomMatrix(random, stops + 1);
+
+            int[] visitOrder = solver.solve(distances, Long.MAX_VALUE);
+
+            assertIsPermutation(visitOrder, stops);
+            assertEquals(bruteForceLength(distances), distances.tourLength(visitOrder));
+        }
+    }
+
+    @Test
+    void handlesNoAndOneStop() {
+        assertArrayEquals(new int[0], solver.solve(DistanceMatrix.manhattan(new int[] {0}, new int[] {0}), Long.MAX_VALUE));
+        assertArrayEquals(new int[] {1}, solver.solve(DistanceMatrix.manhattan(new int[] {0, 3}, new int[] {0, 4}), Long.MAX_VALUE));
+    }
+
+    @Test
+    void rejectsMoreThanMaxStops() {
+        int size = HeldKarpRouteSolver.MAX_STOPS + 2;
+        DistanceMatrix distances = DistanceMatrix.manhattan(new int[size], new int[size]);
+
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(distances, Long.MAX_VALUE));
+    }
+
+    static DistanceMatrix randomMatrix(Random random, int size) {
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        for (int i = 1; i < size; i++) {
+            xs[i] = random.nextInt(50);
+            ys[i] = random.nextInt(50);
+        }
+        return DistanceMatrix.manhattan(xs, ys);
+    }
+
+    static void assertIsPermutation(int[] visitOrder, int stops) {
+        int[] sorted = visitOrder.clone();
+        Arrays.sort(sorted);
+        int[] expected = new int[stops];
+        for (int i = 0; i < stops; i++) {
+            expected[i] = i + 1;
+        }
+        assertArrayEquals(expected, sorted);
+    }
+
+    // Shortest closed tour over every order of the stops
+    private static int bruteForceLength(DistanceMatrix distances) {
+        int[] order = new int[distances.size() - 1];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i + 1;
+        }
+        return shortest(distances, order, 0);
+    }
+
+    private static int shortest(DistanceMatrix distances, int[] order, int fixed) {
+        if (fixed == order.length) {
+            return distances.tourLength(order);
+        }
+        int best = Integer.MAX_VALUE;
+        for (int i = fixed; i < order.length; i++) {
+            swap(order, fixed, i);
+            best = Math.min(best, shortest(distances, order, fixed + 1));
+            swap(order, fixed, i);
+        }
+        return best;
+    }
+
+    private static void swap(int[] order, int i, int j) {
+        int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.service;
+
+import org.example.helper.Result;
+import org.example.model.Point;
+import org.example.model.Product;
+import org.example.model.StockReservation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventoryServiceTest {
+    private final InventoryService inventoryService = new InventoryService();
+
+    @Test
+    void reservesEveryLine() {
+        inventoryService.createProduct(new Product("Apple", 1.0, 5, new Point(1, 1)));
+        inventoryService.createProduct(new Product("Pear", 1.0, 4, new Point(2, 2)));
+
+        StockReservation reservation = inventoryService.reserveStock(orderOf("apple", 3, "Pear", 4));
+
+        assertTrue(reservation.isReserved());
+        assertEquals(2, quantityOf("Apple"));
+        assertEquals(0, quantityOf("Pear"));
+        assertEquals(List.of(new Point(1, 1), new Point(2, 2)), reservation.locations());
+
+        inventoryService.releaseStock(reservation);
+        assertEquals(5, quantityOf("Apple"));
+        assertEquals(4, quantityOf("Pear"));
+    }
+
+    @Test
+    void shortLineGivesBackLinesAlreadyTaken() {
+        inventoryService.createProduct(new Product("Apple", 1.0, 5, new Point(1, 1)));
+        inventoryService.createProduct(new Product("Pear", 1.0, 1, new Point(2, 2)));
+
+        StockReservation reservation = inventoryService.reserveStock(orderOf("Apple", 3, "Pear", 2));
+
+        assertFalse(reservation.isReserved());
+        assertTrue(reservation.reservedQuantities().isEmpty());
+        assertEquals(List.of("Pear (requested 2, available 1)"), reservation.missingItems());
+        assertEquals(5, quantityOf("Apple"));
+        assertEquals(1, quantityOf("Pear"));
+    }
+
+    @Test
+    void missingProductReservesNothingAndReportsEveryLine() {
+        inventoryService.createProduct(new Product("Apple", 1.0, 5, new Point(1, 1)));
+        inventoryService.createProduct(new Product("Pear", 1.0, 1, new Point(2, 2)));
+
+        StockReservation reservation = inventoryService.reserveStock(orderOf("Apple", 1, "Plum", 1, "Pear", 2));
+
+        assertFalse(reservation.isReserved());
+        assertEquals(List.of("Plum: product not found", "Pear (requested 2, available 1)"), reservation.missingItems());
+        assertEquals(5, quantityOf("Apple"));
+        assertEquals(1, quantityOf("Pear"));
+    }
+
+    @Test
+    void reduceStockFailsWithoutEnoughStock() {
+        inventoryService.createProduct(new Product("Apple", 1.0, 2, new Point(1, 1)));
+
+        Result result = inventoryService.reduceStock("Apple", 3);
+
+        assertFalse(result.isSuccess());
+        assertEquals(2, quantityOf("Apple"));
+        assertFalse(inventoryService.reduceStock("Plum", 1).isSuccess());
+        assertTrue(inventoryService.reduceStock("APPLE", 2).isSuccess());
+        assertEquals(0, quantityOf("Apple"));
+    }
+
+    @Test
+    void concurrentOrdersNeverOversellAndConserveStock() throws Exception {
+        int productCount = 5;
+        int initialStock = 300;
+        int threads = 16;
+        int ordersPerThread = 500;
+        for (int i = 0; i < productCount; i++) {
+            inventoryService.createProduct(new Product("product-" + i, 1.0, initialStock, new Point(i, 0)));
+        }
+
+        // Quantity still held by successful orders, per product; half of them are released again
+        Map<String, AtomicInteger> held = new ConcurrentHashMap<>();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    start.await();
+                    for (int o = 0; o < ordersPerThread; o++) {
+                        Map<String, Integer> order = new LinkedHashMap<>();
+                        int lines = 1 + random.nextInt(3);
+                        for (int l = 0; l < lines; l++) {
+                            order.merge("product-" + random.nextInt(productCount), 1 + random.nextInt(5), Integer::sum);
+                        }
+
+                        StockReservation reservation = inventoryService.reserveStock(order);
+                        if (!reservation.isReserved()) {
+                            assertTrue(reservation.reservedQuantities().isEmpty());
+                            rejected.incrementAndGet();
+                        } else if (random.nextBoolean()) {
+                            inventoryService.releaseStock(reservation);
+                        } else {
+                            reservation.reservedQuantities().forEach((product, quantity) ->
+                                    held.computeIfAbsent(product.getName(), name -> new AtomicInteger()).addAndGet(quantity));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Far more is ordered than there is stock, so the check is not vacuous
+        assertTrue(rejected.get() > 0);
+        for (int i = 0; i < productCount; i++) {
+            String name = "product-" + i;
+            int quantity = quantityOf(name);
+            assertTrue(quantity >= 0, name + " went negative: " + quantity);
+            assertEquals(initialStock, quantity + held.getOrDefault(name, new AtomicInteger()).get(), name);
+        }
+    }
+
+    private int quantityOf(String name) {
+        return inventoryService.getProduct(name).orElseThrow().getQuantity();
+    }
+
+    private static Map<String, Integer> orderOf(Object... namesAndQuantities) {
+        Map<String, Integer> order = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndQuantities.length; i += 2) {
+            order.put((String) namesAndQuantities[i], (Integer) namesAndQuantities[i + 1]);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.service;
+
+import org.example.model.Point;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutingServiceTest {
+    private final RoutingService routingService = new RoutingService();
+
+    @Test
+    void emptyPickListStaysAtStart() {
+        assertEquals(List.of(new Point(0, 0), new Point(0, 0)), routingService.calculateOptimalRoute(List.of()));
+    }
+
+    @Test
+    void insertsCornerPointsXFirst() {
+        List<Point> route = routingService.calculateOptimalRoute(List.of(new Point(3, 4)));
+
+        assertEquals(List.of(new Point(0, 0), new Point(3, 0), new Point(3, 4), new Point(0, 4), new Point(0, 0)), route);
+    }
+
+    @Test
+    void noCornerPointOnSharedAxis() {
+        List<Point> route = routingService.calculateOptimalRoute(List.of(new Point(5, 0)));
+
+        assertEquals(List.of(new Point(0, 0), new Point(5, 0), new Point(0, 0)), route);
+    }
+
+    @Test
+    void everyLegMovesAlongOneAxisAndVisitsAllStops() {
+        Random random = new Random(13);
+        // Below and above the exact solver's limit
+        for (int stops : new int[] {5, 40}) {
+            List<Point> pickups = new ArrayList<>();
+            for (int i = 0; i < stops; i++) {
+                pickups.add(new Point(random.nextInt(30), random.nextInt(30)));
+            }
+
+            List<Point> route = routingService.calculateOptimalRoute(pickups);
+
+            assertEquals(new Point(0, 0), route.get(0));
+            assertEquals(new Point(0, 0), route.get(route.size() - 1));
+            for (int i = 1; i < route.size(); i++) {
+                Point from = route.get(i - 1);
+                Point to = route.get(i);
+                assertTrue(from.x() == to.x() || from.y() == to.y(), "Diagonal leg from " + from + " to " + to);
+            }
+            assertTrue(route.containsAll(pickups));
+        }
+    }
+}
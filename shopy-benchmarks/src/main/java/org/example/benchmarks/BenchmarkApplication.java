@@ -0,0 +1,43 @@
+package org.example.benchmarks;
+
+import org.example.shopyapi.ShopyApiApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.stream.Stream;
+
+// Boots the Shopy-API application context for the database benchmarks, without a web server except for HttpLoadTest.
+// The connection settings have to reach the forked benchmark JVM:
+//   -jvmArgsAppend "-Dshopy.bench.db.url=... -Dshopy.bench.db.username=... -Dshopy.bench.db.password=..."
+// Use a database of its own, the schema is created by Hibernate and benchmark data is left behind.
+final class BenchmarkApplication {
+    private BenchmarkApplication() {}
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ShopyApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments());
+    }
+
+    // With the embedded Tomcat on a random port, see HttpLoadTest
+    static ConfigurableApplicationContext startServer(String... extraArguments) {
+        return new SpringApplicationBuilder(ShopyApiApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(Stream.of(arguments(), new String[] {"--server.port=0", "--management.server.port=0"}, extraArguments)
+                        .flatMap(Stream::of)
+                        .toArray(String[]::new));
+    }
+
+    // Passed as command line arguments so they take precedence over application.properties
+    private static String[] arguments() {
+        return new String[] {
+                "--spring.datasource.url=" + System.getProperty("shopy.bench.db.url", "jdbc:postgresql://localhost:5432/shopy_bench"),
+                "--spring.datasource.username=" + System.getProperty("shopy.bench.db.username", "postgres"),
+                "--spring.datasource.password=" + System.getProperty("shopy.bench.db.password", "postgres"),
+                "--spring.datasource.hikari.maximum-pool-size=32",
+                "--spring.jpa.show-sql=false",
+                "--app.initialize.data=false"
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.benchmarks;
+
+import org.example.model.Point;
+import org.example.model.Product;
+import org.example.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// The CLI in-memory inventory with restocks and sales of one product racing each other:
+// createProduct of an existing product adds its stock, reduceStock takes it with compare-and-set.
+// Every iteration starts from a fresh inventory so the stock neither runs out nor overflows.
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CliInventoryContentionBenchmark {
+    private static final String PRODUCT_NAME = "hot-product";
+    private static final Point LOCATION = new Point(1, 1);
+
+    private InventoryService inventoryService;
+
+    @Setup(Level.Iteration)
+    public void createInventory() {
+        inventoryService = new InventoryService();
+        inventoryService.createProduct(new Product(PRODUCT_NAME, 1.0, 1_000_000_000, LOCATION));
+    }
+
+    @Benchmark
+    @Group("hotProduct")
+    @GroupThreads(4)
+    public boolean restock() {
+        return inventoryService.createProduct(new Product(PRODUCT_NAME, 1.0, 1, LOCATION)).isSuccess();
+    }
+
+    @Benchmark
+    @Group("hotProduct")
+    @GroupThreads(4)
+    public boolean sell() {
+        return inventoryService.reduceStock(PRODUCT_NAME, 1).isSuccess();
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.benchmarks;
+
+import org.example.model.Order;
+import org.example.model.OrderResult;
+import org.example.model.Point;
+import org.example.model.Product;
+import org.example.service.InventoryService;
+import org.example.service.OrderService;
+import org.example.service.RoutingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// CLI OrderService.processOrder end to end against the in-memory services: stock reservation
+// and route calculation for orders of a given number of lines, and an order that fails.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CliOrderBenchmark {
+    private static final int PRODUCTS = 1000;
+    private static final int ORDERS = 1024;
+
+    @Param({"1", "5", "20"})
+    private int lines;
+
+    private OrderService orderService;
+    private Order[] orders;
+    private Order failingOrder;
+    private int nextOrder;
+
+    @Setup
+    public void setUp() {
+        InventoryService inventoryService = new InventoryService();
+        for (int i = 0; i < PRODUCTS; i++) {
+            // Enough stock that no order of the run sells out
+            inventoryService.createProduct(new Product("product-" + i, 1.0, Integer.MAX_VALUE / 2, new Point(i % 40, i / 40)));
+        }
+        orderService = new OrderService(inventoryService, new RoutingService());
+
+        Random random = new Random(42);
+        orders = new Order[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            Map<String, Integer> requested = new LinkedHashMap<>();
+            while (requested.size() < lines) {
+                requested.put("product-" + random.nextInt(PRODUCTS), 1);
+            }
+            orders[i] = new Order(requested);
+        }
+        failingOrder = new Order(Map.of("product-0", 1, "missing-product", 1));
+    }
+
+    @Benchmark
+    public OrderResult processOrder() {
+        Order order = orders[nextOrder];
+        nextOrder = (nextOrder + 1) % ORDERS;
+        return orderService.processOrder(order);
+    }
+
+    @Benchmark
+    public OrderResult processFailingOrder() {
+        return orderService.processOrder(failingOrder);
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.benchmarks;
+
+import org.example.shopyapi.dto.ProductDto;
+import org.example.shopyapi.dto.RouteDto;
+import org.example.shopyapi.model.Order;
+import org.example.shopyapi.model.OrderItem;
+import org.example.shopyapi.model.OrderStatus;
+import org.example.shopyapi.model.PickTour;
+import org.example.shopyapi.model.Point;
+import org.example.shopyapi.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity to DTO mapping done for every product and route response.
+// routeStops is the number of points of the route, batched orders map both their own stops and the shared tour.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+    private final Product product = new Product(1L, "Benchmark product", 2.5, 100, new Point(3, 4));
+
+    @State(Scope.Benchmark)
+    public static class Routes {
+        @Param({"10", "100", "1000"})
+        private int routeStops;
+
+        private Order order;
+        private Order batchedOrder;
+
+        @Setup
+        public void setUp() {
+            List<Point> route = new ArrayList<>(routeStops);
+            for (int i = 0; i < routeStops; i++) {
+                route.add(new Point(i % 50, i / 50));
+            }
+            order = new Order(1L, OrderStatus.SUCCESS, List.of(new OrderItem("Benchmark product", 1)), route);
+
+            batchedOrder = new Order(2L, OrderStatus.SUCCESS, List.of(new OrderItem("Benchmark product", 1)),
+                    route.subList(0, Math.max(1, routeStops / 4)));
+            batchedOrder.setPickTour(new PickTour(route));
+        }
+    }
+
+    @Benchmark
+    public ProductDto productFromEntity() {
+        return ProductDto.fromEntity(product);
+    }
+
+    @Benchmark
+    public RouteDto routeFromEntity(Routes routes) {
+        return RouteDto.fromEntity(routes.order);
+    }
+
+    @Benchmark
+    public RouteDto batchedRouteFromEntity(Routes routes) {
+        return RouteDto.fromEntity(routes.batchedOrder);
+    }
+}
@@ -0,0 +1,213 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+// Closed-loop HTTP load against the running application: a fixed number of clients send requests back
+// to back, and throughput and latency percentiles are reported per endpoint for Tomcat on its platform
+// thread pool and on virtual threads (spring.threads.virtual.enabled).
+// The logging modes compare GET /api/products with every SQL statement written synchronously to the
+// console (the former show-sql setup) against the async structured logging, both at INFO and with the
+// product list cache off so that every request queries.
+// Not a JMH benchmark, run it from the uber jar with the database settings of BenchmarkApplication:
+//   java -Dshopy.bench.db.url=... -cp target/benchmarks.jar org.example.benchmarks.HttpLoadTest \
+//       [platform|virtual|console-logging|async-logging]...
+// -Dshopy.load.clients (default 400), -Dshopy.load.warmup-seconds (10) and -Dshopy.load.seconds (30) tune a run.
+public final class HttpLoadTest {
+    private static final int PRODUCTS = 100;
+
+    // Server arguments of each mode, platform and virtual run when no mode is given
+    private static final Map<String, List<String>> MODES = Map.of(
+            "platform", List.of("--spring.threads.virtual.enabled=false", "--logging.level.root=WARN"),
+            "virtual", List.of("--spring.threads.virtual.enabled=true", "--logging.level.root=WARN"),
+            "console-logging", List.of("--spring.profiles.active=console-logging", "--spring.jpa.show-sql=true",
+                    "--spring.jpa.properties.hibernate.format_sql=true", "--app.products.cache.list-max-bytes=0"),
+            "async-logging", List.of("--app.products.cache.list-max-bytes=0"));
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int clients;
+    private final Duration warmup;
+    private final Duration measurement;
+
+    private String baseUrl;
+    private String token;
+    private long[] productIds;
+
+    private record Result(long requests, long errors, long[] latenciesNanos) { }
+
+    private HttpLoadTest(int clients, Duration warmup, Duration measurement) {
+        this.clients = clients;
+        this.warmup = warmup;
+        this.measurement = measurement;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(clients))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> modes = args.length > 0 ? List.of(args) : List.of("platform", "virtual");
+        HttpLoadTest loadTest = new HttpLoadTest(
+                Integer.getInteger("shopy.load.clients", 400),
+                Duration.ofSeconds(Long.getLong("shopy.load.warmup-seconds", 10)),
+                Duration.ofSeconds(Long.getLong("shopy.load.seconds", 30)));
+        for (String mode : modes) {
+            if (!MODES.containsKey(mode)) {
+                throw new IllegalArgumentException("Unknown mode " + mode + ", expected one of " + MODES.keySet());
+            }
+            loadTest.run(mode);
+        }
+        System.exit(0);
+    }
+
+    private void run(String mode) throws Exception {
+        List<String> arguments = new ArrayList<>(MODES.get(mode));
+        arguments.add("--spring.main.banner-mode=off");
+        arguments.add("--app.orders.archive.enabled=false");
+        try (ConfigurableApplicationContext context = BenchmarkApplication.startServer(arguments.toArray(String[]::new))) {
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            setUp();
+
+            Map<String, Function<ThreadLocalRandom, HttpRequest>> endpoints = new LinkedHashMap<>();
+            if (mode.endsWith("-logging")) {
+                endpoints.put("GET /api/products?limit=20", random -> get("/api/products?limit=20"));
+            } else {
+                endpoints.put("GET /api/products/{id}", random -> get("/api/products/" + productIds[random.nextInt(PRODUCTS)]));
+                endpoints.put("GET /api/orders?limit=20", random -> get("/api/orders?limit=20"));
+                endpoints.put("POST /api/orders", random -> post("/api/orders", Map.of("items", List.of(
+                        Map.of("productName", "load-" + random.nextInt(PRODUCTS), "quantity", 1),
+                        Map.of("productName", "load-" + random.nextInt(PRODUCTS), "quantity", 1)))));
+            }
+            for (Map.Entry<String, Function<ThreadLocalRandom, HttpRequest>> endpoint : endpoints.entrySet()) {
+                load(endpoint.getValue(), warmup);
+                report(mode, endpoint.getKey(), load(endpoint.getValue(), measurement));
+            }
+        }
+    }
+
+    // A user of its own per run with PRODUCTS products that do not sell out
+    private void setUp() throws IOException, InterruptedException {
+        String email = "load-" + System.nanoTime() + "@shopy.local";
+        JsonNode registered = send(post("/auth/register", Map.of(
+                "name", "Load Test", "email", email, "password", "load-test", "telephone", "", "address", "")));
+        token = registered.get("token").asText();
+
+        productIds = new long[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            JsonNode product = send(post("/api/products", Map.of("name", "load-" + i, "price", 1.0,
+                    "quantity", 1_000_000_000, "location", Map.of("x", i % 10 + 1, "y", i / 10 + 1))));
+            productIds[i] = product.get("id").asLong();
+        }
+    }
+
+    private Result load(Function<ThreadLocalRandom, HttpRequest> request, Duration duration) throws Exception {
+        long end = System.nanoTime() + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(workers.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long[] latencies = new long[1024];
+                    long requests = 0;
+                    long errors = 0;
+                    while (System.nanoTime() < end) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request.apply(random), HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors++;
+                            }
+                        } catch (IOException e) {
+                            errors++;
+                        }
+                        if (requests == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+                        }
+                        latencies[(int) requests++] = System.nanoTime() - start;
+                    }
+                    return new Result(requests, errors, Arrays.copyOf(latencies, (int) requests));
+                }));
+            }
+
+            long requests = 0;
+            long errors = 0;
+            List<long[]> latencies = new ArrayList<>();
+            for (Future<Result> future : futures) {
+                Result result = future.get();
+                requests += result.requests();
+                errors += result.errors();
+                latencies.add(result.latenciesNanos());
+            }
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Result(requests, errors, all);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void report(String mode, String endpoint, Result result) {
+        long[] latencies = result.latenciesNanos();
+        System.out.printf("%-15s %-26s %9.0f req/s  p50 %7.2f ms  p99 %7.2f ms  max %7.2f ms  errors %d%n",
+                mode, endpoint, result.requests() / (double) measurement.toSeconds(),
+                percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6, result.errors());
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder.build();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.benchmarks;
+
+import org.example.model.Point;
+import org.example.model.Product;
+import org.example.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Bulk load of the CLI in-memory inventory, every product on its own shelf.
+// With the location index each insert is O(1), before it scanned all products already loaded.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InventoryLoadBenchmark {
+    private static final int AISLE_LENGTH = 1000;
+
+    @Param({"10000", "1000000"})
+    private int products;
+
+    private Product[] catalogue;
+
+    // Products are created up front so only the inserts are measured
+    @Setup(Level.Invocation)
+    public void createCatalogue() {
+        catalogue = new Product[products];
+        for (int i = 0; i < products; i++) {
+            catalogue[i] = new Product("product-" + i, 1.0, 10, new Point(i % AISLE_LENGTH, i / AISLE_LENGTH));
+        }
+    }
+
+    @Benchmark
+    public InventoryService loadProducts() {
+        InventoryService inventoryService = new InventoryService();
+        for (Product product : catalogue) {
+            if (!inventoryService.createProduct(product).isSuccess()) {
+                throw new IllegalStateException("Product rejected: " + product.getName());
+            }
+        }
+        return inventoryService;
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.example.shopyapi.JwtAuthenticationFilter;
+import org.example.shopyapi.model.User;
+import org.example.shopyapi.service.JwtService;
+import org.example.shopyapi.service.TokenRevocationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Authentication of one request carrying a bearer token.
+// legacyTokenChecks repeats the token work of the original filter: a new key and parser
+// for each of its three parses.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final int DISTINCT_TOKENS = 4096;
+
+    private final FilterChain chain = (request, response) -> { };
+    private JwtAuthenticationFilter cachingFilter;
+    private JwtAuthenticationFilter missingFilter;
+    private String token;
+    private String[] distinctTokens;
+    private int nextToken;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("Benchmark");
+        user.setEmail("jwt-benchmark@shopy.local");
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(24);
+
+        JwtService cachingService = new JwtService(10_000);
+        cachingFilter = new JwtAuthenticationFilter(cachingService, tokenRevocationService, new SimpleMeterRegistry());
+        token = cachingService.generateToken(user);
+
+        // Cycling through more tokens than the cache holds makes every request a miss
+        JwtService missingService = new JwtService(1);
+        missingFilter = new JwtAuthenticationFilter(missingService, tokenRevocationService, new SimpleMeterRegistry());
+        distinctTokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            distinctTokens[i] = missingService.generateToken(Map.of("nonce", i), user);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object filterCachedToken() throws Exception {
+        return authenticate(cachingFilter, token);
+    }
+
+    @Benchmark
+    public Object filterUncachedToken() throws Exception {
+        String uncachedToken = distinctTokens[nextToken];
+        nextToken = (nextToken + 1) % DISTINCT_TOKENS;
+        return authenticate(missingFilter, uncachedToken);
+    }
+
+    @Benchmark
+    public boolean legacyTokenChecks() {
+        String username = legacyClaims(token).getSubject();
+        return username.equals(legacyClaims(token).getSubject())
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    private Object authenticate(JwtAuthenticationFilter filter, String bearerToken) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer " + bearerToken);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new IllegalStateException("Request was not authenticated");
+        }
+        return authentication;
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(java.util.Base64.getDecoder().decode(SECRET_KEY));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.benchmarks;
+
+import org.example.shopyapi.model.User;
+import org.example.shopyapi.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Issuing and validating tokens with JwtService on its own, JwtFilterBenchmark covers the whole filter.
+// Validation is measured for a token whose claims are cached and for tokens that always miss the cache.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private static final int DISTINCT_TOKENS = 4096;
+
+    private User user;
+    private JwtService cachingService;
+    private JwtService missingService;
+    private String token;
+    private String[] distinctTokens;
+    private int nextToken;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setName("Benchmark");
+        user.setEmail("jwt-benchmark@shopy.local");
+
+        cachingService = new JwtService(10_000);
+        token = cachingService.generateToken(user);
+
+        missingService = new JwtService(1);
+        distinctTokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            distinctTokens[i] = missingService.generateToken(Map.of("nonce", i), user);
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateCachedToken() {
+        return cachingService.isTokenValid(token, user.getEmail());
+    }
+
+    @Benchmark
+    public boolean validateUncachedToken() {
+        String uncachedToken = distinctTokens[nextToken];
+        nextToken = (nextToken + 1) % DISTINCT_TOKENS;
+        return missingService.isTokenValid(uncachedToken, user.getEmail());
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.benchmarks;
+
+import org.example.shopyapi.dto.ProductDto;
+import org.example.shopyapi.model.Point;
+import org.example.shopyapi.model.Product;
+import org.example.shopyapi.model.ProductId;
+import org.example.shopyapi.model.User;
+import org.example.shopyapi.repository.ProductRepository;
+import org.example.shopyapi.repository.UserRepository;
+import org.example.shopyapi.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Product lookups by owner over 1M products of 10k users.
+// The legacy variant resolves the user by email first, like the original InventoryService did,
+// and only then looks up the product. The original location lookup is not compared: it searched all
+// users' products and fails as soon as two users use the same shelf coordinates.
+// Needs a database, see BenchmarkApplication. The data is inserted once and reused by later runs.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class OwnerScopedQueryBenchmark {
+    private static final int USERS = 10_000;
+    private static final int PRODUCTS_PER_USER = 100;
+    private static final int SHELVES_PER_ROW = 10;
+    // Far above the ids of regular products, and distinct across the benchmark users so that
+    // deleteForeignProduct never hits a product the other user owns under the same id
+    private static final long FIRST_PRODUCT_ID = 1_000_000_000L;
+
+    private ConfigurableApplicationContext context;
+    private InventoryService inventoryService;
+    private ProductRepository productRepository;
+    private UserRepository userRepository;
+    private long[] userIds;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start();
+        inventoryService = context.getBean(InventoryService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Integer seededUsers = jdbcTemplate.queryForObject(
+                "select count(*) from users where email like 'owner-bench-%'", Integer.class);
+        if (seededUsers == null || seededUsers < USERS) {
+            seed(jdbcTemplate);
+        }
+        userIds = jdbcTemplate.queryForList(
+                "select id from users where email like 'owner-bench-%' order by id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> users = new ArrayList<>(USERS);
+        for (int u = 0; u < USERS; u++) {
+            users.add(new Object[] {"Owner Benchmark " + u, email(u)});
+        }
+        jdbcTemplate.batchUpdate("insert into users (name, email) values (?, ?)", users);
+
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select id from users where email like 'owner-bench-%' order by id", Long.class);
+        List<Object[]> products = new ArrayList<>(PRODUCTS_PER_USER * 100);
+        for (int u = 0; u < ids.size(); u++) {
+            for (int p = 0; p < PRODUCTS_PER_USER; p++) {
+                products.add(new Object[] {productId(u, p), "sku-" + p, 1.0, 100,
+                        p % SHELVES_PER_ROW, p / SHELVES_PER_ROW, ids.get(u)});
+            }
+            if (products.size() >= PRODUCTS_PER_USER * 100 || u == ids.size() - 1) {
+                jdbcTemplate.batchUpdate("insert into product (id, name, price, quantity, location_x, location_y, user_id)"
+                        + " values (?, ?, ?, ?, ?, ?, ?)", products);
+                products.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    // Served from ProductCache for products read before; with the default cache size only part of the 1M products stay cached
+    @Benchmark
+    public Optional<ProductDto> findByIdAndUserId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int user = random.nextInt(userIds.length);
+        return inventoryService.findByIdAndUser(productId(user, random.nextInt(PRODUCTS_PER_USER)), userIds[user]);
+    }
+
+    @Benchmark
+    public Optional<Product> legacyFindByIdAndUser() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int user = random.nextInt(userIds.length);
+        Optional<User> owner = userRepository.findByEmail(email(user));
+        if (owner.isEmpty()) {
+            return Optional.empty();
+        }
+        return productRepository.findById(new ProductId(owner.get().getId(), productId(user, random.nextInt(PRODUCTS_PER_USER))));
+    }
+
+    @Benchmark
+    public Optional<Product> findByLocationAndUserId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int shelf = random.nextInt(PRODUCTS_PER_USER);
+        Point location = new Point(shelf % SHELVES_PER_ROW, shelf / SHELVES_PER_ROW);
+        return productRepository.findByLocationAndUserId(location, userIds[random.nextInt(userIds.length)]);
+    }
+
+    // Deleting another user's product, rejected by the owner condition of the delete statement
+    @Benchmark
+    public boolean deleteForeignProduct() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int user = random.nextInt(userIds.length);
+        long otherUser = userIds[(user + 1) % userIds.length];
+        if (inventoryService.deleteProduct(productId(user, random.nextInt(PRODUCTS_PER_USER)), otherUser)) {
+            throw new IllegalStateException("Deleted a product of another user");
+        }
+        return false;
+    }
+
+    private static String email(int user) {
+        return "owner-bench-" + user + "@shopy.local";
+    }
+
+    private static long productId(int user, int product) {
+        return FIRST_PRODUCT_ID + (long) user * PRODUCTS_PER_USER + product;
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.shopyapi.model.Point;
+import org.example.shopyapi.routing.DistanceMatrix;
+import org.example.shopyapi.routing.HeldKarpRouteSolver;
+import org.example.shopyapi.routing.LocalSearchRouteSolver;
+import org.example.shopyapi.service.RoutingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compares the original boxed Point nearest-neighbour routing with the packed int[] routing core.
+// Run with -prof gc to compare allocation rates.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutingBenchmark {
+    private static final Point WAREHOUSE_START_POINT = new Point(0, 0);
+
+    @Param({"10", "100", "1000"})
+    private int stops;
+
+    private List<Point> pickupLocations;
+    private int[] xs;
+    private int[] ys;
+    private LocalSearchRouteSolver localSearchSolver;
+    private RoutingService routingService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        pickupLocations = new ArrayList<>(stops);
+        xs = new int[stops + 1];
+        ys = new int[stops + 1];
+        for (int i = 1; i <= stops; i++) {
+            Point location = new Point(random.nextInt(200), random.nextInt(200));
+            pickupLocations.add(location);
+            xs[i] = location.getX();
+            ys[i] = location.getY();
+        }
+        localSearchSolver = new LocalSearchRouteSolver();
+        routingService = new RoutingService(new HeldKarpRouteSolver(), localSearchSolver, null, new SimpleMeterRegistry(), 15, 200);
+    }
+
+    @Benchmark
+    public List<Point> legacyNearestNeighbour() {
+        return LegacyRouting.calculateRoute(pickupLocations);
+    }
+
+    // An already expired deadline stops the local search right after its nearest-neighbour seed,
+    // which makes this directly comparable with the legacy implementation.
+    @Benchmark
+    public int[] packedNearestNeighbour() {
+        return localSearchSolver.solve(DistanceMatrix.manhattan(xs, ys), 0L);
+    }
+
+    @Benchmark
+    public List<Point> calculateOptimalRoute() {
+        return routingService.calculateOptimalRoute(pickupLocations);
+    }
+
+    // Copy of the original RoutingService implementation, kept as the baseline.
+    static final class LegacyRouting {
+        static List<Point> calculateRoute(List<Point> pickupLocations) {
+            List<Point> sequence = new ArrayList<>();
+            List<Point> remaining = new ArrayList<>(pickupLocations);
+            Point currentLocation = WAREHOUSE_START_POINT;
+            sequence.add(currentLocation);
+
+            while (!remaining.isEmpty()) {
+                Point nearestLocation = null;
+                int shortestDistance = Integer.MAX_VALUE;
+                for (Point location : remaining) {
+                    int distance = Math.abs(currentLocation.getX() - location.getX())
+                            + Math.abs(currentLocation.getY() - location.getY());
+                    if (distance < shortestDistance) {
+                        shortestDistance = distance;
+                        nearestLocation = location;
+                    }
+                }
+                currentLocation = nearestLocation;
+                sequence.add(currentLocation);
+                remaining.remove(currentLocation);
+            }
+            sequence.add(WAREHOUSE_START_POINT);
+
+            List<Point> fullPath = new ArrayList<>();
+            for (int i = 0; i < sequence.size() - 1; i++) {
+                Point start = sequence.get(i);
+                Point end = sequence.get(i + 1);
+                fullPath.add(start);
+                if (start.getX() != end.getX() && start.getY() != end.getY()) {
+                    fullPath.add(new Point(end.getX(), start.getY()));
+                }
+            }
+            fullPath.add(sequence.get(sequence.size() - 1));
+            return fullPath;
+        }
+    }
+}
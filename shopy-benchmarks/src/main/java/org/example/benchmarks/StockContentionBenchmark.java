@@ -0,0 +1,92 @@
+package org.example.benchmarks;
+
+import org.example.shopyapi.model.Point;
+import org.example.shopyapi.model.Product;
+import org.example.shopyapi.model.User;
+import org.example.shopyapi.repository.ProductRepository;
+import org.example.shopyapi.repository.UserRepository;
+import org.example.shopyapi.service.StockReservationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Many threads ordering one unit of the same product at once.
+// Every iteration starts from a fresh stock level and fails unless the final stock equals
+// the initial stock minus the successful reservations, so any oversell or lost update aborts the run.
+// Needs a database, see BenchmarkApplication.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class StockContentionBenchmark {
+    private static final String USER_EMAIL = "stock-benchmark@shopy.local";
+    private static final String PRODUCT_NAME = "Benchmark SKU";
+
+    // A low stock level sells out within the iteration and exercises the rejection path
+    @Param({"1000", "1000000"})
+    private int initialStock;
+
+    private ConfigurableApplicationContext context;
+    private StockReservationService stockReservationService;
+    private ProductRepository productRepository;
+    private User user;
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start();
+        stockReservationService = context.getBean(StockReservationService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        user = userRepository.findByEmail(USER_EMAIL).orElseGet(() -> {
+            User benchmarkUser = new User();
+            benchmarkUser.setName("Stock Benchmark");
+            benchmarkUser.setEmail(USER_EMAIL);
+            return userRepository.save(benchmarkUser);
+        });
+        if (productRepository.findByNameAndUser(PRODUCT_NAME, user).isEmpty()) {
+            // Far away from the ids handed out to regular users
+            Product product = new Product(Long.MAX_VALUE - user.getId(), PRODUCT_NAME, 1.0, 0, new Point(1, 1));
+            product.setUser(user);
+            productRepository.save(product);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStock() {
+        Product product = productRepository.findByNameAndUser(PRODUCT_NAME, user).orElseThrow();
+        product.setQuantity(initialStock);
+        productRepository.save(product);
+        reserved.set(0);
+    }
+
+    @Benchmark
+    public boolean reserveOneUnit() {
+        boolean success = stockReservationService.reserveStock(user, Map.of(PRODUCT_NAME, 1)).isReserved();
+        if (success) {
+            reserved.incrementAndGet();
+        }
+        return success;
+    }
+
+    @TearDown(Level.Iteration)
+    public void verifyNoOversell() {
+        int remaining = productRepository.findByNameAndUser(PRODUCT_NAME, user).orElseThrow().getQuantity();
+        if (remaining < 0 || remaining != initialStock - reserved.get()) {
+            throw new IllegalStateException("Stock mismatch: started with " + initialStock + ", reserved "
+                    + reserved.get() + ", " + remaining + " left");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+}
@@ -1,5 +1,5 @@
 import { useState, useEffect } from "react";
-import { Product } from "../types";
+import { InventoryEvent, Product } from "../types";
 import { productsAPI } from "../services/api";
 
 export function useWarehouseData(user?: any) {
@@ -16,11 +16,40 @@ export function useWarehouseData(user?: any) {
         }
         setLoading(true);
         setError(null);
+
+        // Subscribed before loading, events arriving during the load are applied after it
+        let loaded = false;
+        const early: InventoryEvent[] = [];
+        const apply = (event: InventoryEvent) => {
+            if (event.type === "RESET") {
+                productsAPI.getAll().then(setProducts).catch(() => undefined);
+                return;
+            }
+            const id = String(event.productId);
+            setProducts((prev) => {
+                const product = event.product;
+                if (!product) {
+                    return prev.filter((p) => String(p.id) !== id);
+                }
+                return prev.some((p) => String(p.id) === id)
+                    ? prev.map((p) => (String(p.id) === id ? product : p))
+                    : [...prev, product];
+            });
+        };
+        const unsubscribe = productsAPI.subscribe((event) =>
+            loaded ? apply(event) : early.push(event)
+        );
+
         productsAPI
             .getAll()
-            .then(setProducts)
+            .then((all) => {
+                setProducts(all);
+                loaded = true;
+                early.forEach(apply);
+            })
             .catch((err) => setError(err.message || "Failed to load products"))
             .finally(() => setLoading(false));
+        return unsubscribe;
     }, [user]);
 
     const addProduct = async (product: Omit<Product, "id">) => {
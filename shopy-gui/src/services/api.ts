@@ -1,5 +1,5 @@
 import axios from "axios";
-import { Product, Order } from "../types";
+import { Product, Order, InventoryEvent } from "../types";
 
 const API_BASE_URL = process.env.REACT_APP_API_URL;
 
@@ -121,11 +121,24 @@ export const authAPI = {
     },
 };
 
+// Listings are paginated, follow the X-Next-Cursor header until the last page
+const getAllPages = async <T>(url: string): Promise<T[]> => {
+    const items: T[] = [];
+    let cursor: string | undefined;
+    do {
+        const response = await api.get<T[]>(url, {
+            params: { limit: 1000, cursor },
+        });
+        items.push(...response.data);
+        cursor = response.headers["x-next-cursor"];
+    } while (cursor);
+    return items;
+};
+
 // Products API
 export const productsAPI = {
     getAll: async (): Promise<Product[]> => {
-        const response = await api.get<Product[]>("/api/products");
-        return response.data;
+        return getAllPages<Product>("/api/products");
     },
 
     getById: async (id: number): Promise<Product> => {
@@ -156,13 +169,76 @@ export const productsAPI = {
     delete: async (id: number): Promise<void> => {
         await api.delete(`/api/products/${id}`);
     },
+
+    // Product changes as they happen. EventSource cannot send the Authorization header, so the
+    // stream is read with fetch and reopened after the last received event when it ends.
+    // Returns a function that closes the stream.
+    subscribe: (onEvent: (event: InventoryEvent) => void): (() => void) => {
+        const controller = new AbortController();
+        let lastEventId: string | undefined;
+
+        const connect = async () => {
+            while (!controller.signal.aborted) {
+                try {
+                    const headers: Record<string, string> = {
+                        Accept: "text/event-stream",
+                        Authorization: `Bearer ${localStorage.getItem("jwt_token")}`,
+                    };
+                    if (lastEventId) {
+                        headers["Last-Event-ID"] = lastEventId;
+                    }
+                    const response = await fetch(`${API_BASE_URL}/api/products/events`, {
+                        headers,
+                        signal: controller.signal,
+                    });
+                    if (!response.ok || !response.body) {
+                        throw new Error(`Inventory events failed: ${response.status}`);
+                    }
+                    const reader = response.body.getReader();
+                    const decoder = new TextDecoder();
+                    let buffer = "";
+                    let id: string | undefined;
+                    let data = "";
+                    for (;;) {
+                        const { done, value } = await reader.read();
+                        if (done) {
+                            break;
+                        }
+                        buffer += decoder.decode(value, { stream: true });
+                        const lines = buffer.split("\n");
+                        buffer = lines.pop() ?? "";
+                        for (const line of lines) {
+                            if (line.startsWith("id:")) {
+                                id = line.slice(3).trim();
+                            } else if (line.startsWith("data:")) {
+                                data += line.slice(5);
+                            } else if (line === "" && data) {
+                                lastEventId = id ?? lastEventId;
+                                onEvent(JSON.parse(data));
+                                id = undefined;
+                                data = "";
+                            }
+                        }
+                    }
+                } catch (err) {
+                    if (controller.signal.aborted) {
+                        return;
+                    }
+                    console.error("Inventory events disconnected:", err);
+                }
+                await new Promise((resolve) => setTimeout(resolve, 3000));
+            }
+        };
+
+        connect();
+        return () => controller.abort();
+    },
 };
 
 // Orders API
 export const ordersAPI = {
     getAll: async (): Promise<Order[]> => {
-        const response = await api.get<Order[]>("/api/orders");
-        return response.data;
+        return getAllPages<Order>("/api/orders");
     },
 
     getStatusById: async (id: number): Promise<Order> => {
@@ -24,3 +24,10 @@ export type Route = {
     status: string;
     visitedLocations: number[][];
 };
+
+// Data of an "inventory" server-sent event from /api/products/events
+export type InventoryEvent = {
+    type: "CREATED" | "UPDATED" | "STOCK_CHANGED" | "DELETED" | "RESET";
+    productId: number | null;
+    product: Product | null;
+};